@@ -0,0 +1,92 @@
+package com.example.crud.loadtest;
+
+import java.util.Random;
+
+/**
+ * Produces synthetic but realistic-looking contacts. The n-th contact is always the same, so runs are
+ * repeatable, and every contact has a distinct phone number, so the API's duplicate check never rejects one.
+ */
+public class ContactDataGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "Alan", "Betty", "Carlos", "Diana", "Ethan", "Fatima", "George", "Hana", "Ivan", "Julia",
+            "Kenji", "Laura", "Mohammed", "Nina", "Oscar", "Priya", "Quentin", "Rosa", "Samuel", "Tara",
+            "Umar", "Vera", "William", "Xinyi", "Yusuf", "Zoe"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Wang", "Smith", "Garcia", "Johnson", "Nguyen", "Brown", "Khan", "Lee", "Martin", "Rossi",
+            "Schmidt", "Tanaka", "Kowalski", "Silva", "Murphy", "Dubois", "Ivanova", "Okafor", "Cohen", "Patel"
+    };
+
+    private static final String[] STREETS = {
+            "Main St", "1st Avenue", "Oak St", "Maple Ave", "Cedar Rd", "Elm St", "Park Blvd", "Lake Dr", "Hill Rd", "Pine St"
+    };
+
+    private static final String[] CITIES = {
+            "Springfield, IL 62701", "Riverside, CA 92501", "Franklin, TN 37064", "Greenville, SC 29601", "Bristol, CT 06010",
+            "Clinton, MS 39056", "Fairview, TX 75069", "Salem, OR 97301", "Madison, WI 53703", "Georgetown, TX 78626"
+    };
+
+    private static final String[] DOMAINS = {"example.com", "example.org", "mail.example.net"};
+
+    // The tenant the API uses for requests without an X-Tenant-ID header, which the load test never sends
+    private static final String DEFAULT_TENANT = "default";
+
+    private final long seed;
+
+    public ContactDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param n the index of the contact, from 0
+     * @return the n-th contact as a JSON request body for POST/PUT /api/contacts
+     */
+    public String contactJson(long n) {
+        String[] fields = contactFields(n);
+        return "{\"firstName\":\"" + fields[0] + "\",\"lastName\":\"" + fields[1]
+                + "\",\"phoneNumber\":\"" + fields[2] + "\",\"email\":\"" + fields[3]
+                + "\",\"address\":\"" + fields[4] + "\"}";
+    }
+
+    /**
+     * @param n the index of the contact, from 0
+     * @return the n-th contact as an INSERT statement for the contacts table, in the default tenant and with the
+     *         phone digits the API would have stored for it
+     */
+    public String contactSql(long n) {
+        String[] fields = contactFields(n);
+        return "INSERT INTO contacts (id, tenant_id, first_name, last_name, phone_number, normalized_phone, email, address)"
+                + " VALUES (" + (n + 1) + ", '" + DEFAULT_TENANT + "', '" + fields[0] + "', '" + fields[1] + "', '"
+                + fields[2] + "', '" + fields[2].replace("-", "") + "', '" + fields[3] + "', '" + fields[4] + "');";
+    }
+
+    /**
+     * @param n the index of the contact, from 0
+     * @return the first name of the n-th contact, for first name searches that hit existing rows
+     */
+    public String firstName(long n) {
+        return contactFields(n)[0];
+    }
+
+    /**
+     * @param n the index of the contact, from 0
+     * @return the phone number of the n-th contact
+     */
+    public String phoneNumber(long n) {
+        return contactFields(n)[2];
+    }
+
+    private String[] contactFields(long n) {
+        Random random = new Random(seed ^ (n * 0x9E3779B97F4A7C15L));
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        // A fixed width number never contains another one as a substring, so phone searches stay exact
+        String phoneNumber = String.format("%03d-%03d-%04d", 200 + (n / 10_000_000) % 800, (n / 10_000) % 1000, n % 10_000);
+        String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + n + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        String address = (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)]
+                + ", " + CITIES[random.nextInt(CITIES.length)];
+        return new String[]{firstName, lastName, phoneNumber, email, address};
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.crud.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the latency of every request per operation and prints percentiles at the end of a run.
+ *
+ * Latency is measured from the time a request was scheduled to start, not from when it was sent, so a
+ * server that falls behind shows up in the numbers instead of quietly slowing the load down.
+ */
+public class LatencyReport {
+
+    // Anything slower than a minute is reported as a minute
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    public LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            totals.put(operation, new Histogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Records a completed request. Safe to call from any thread.
+     */
+    public void record(Operation operation, long latencyNanos, boolean error) {
+        recorders.get(operation).recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        if (error) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * Moves what was recorded since the last call into the run totals.
+     */
+    public synchronized void collect() {
+        for (Operation operation : Operation.values()) {
+            totals.get(operation).add(recorders.get(operation).getIntervalHistogram());
+        }
+    }
+
+    /**
+     * @return the latencies of all operations together
+     */
+    public synchronized Histogram overall() {
+        Histogram overall = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        for (Histogram histogram : totals.values()) {
+            overall.add(histogram);
+        }
+        return overall;
+    }
+
+    /**
+     * Prints one line per operation that saw traffic, plus an overall line, with latencies in milliseconds.
+     *
+     * @param out where to print
+     * @param elapsedSeconds the measured time from the start of the measured run until its last response, to compute throughput
+     */
+    public synchronized void print(PrintStream out, double elapsedSeconds) {
+        out.printf("%-16s %-7s %9s %9s %8s %8s %8s %8s %8s %8s%n",
+                "operation", "type", "requests", "req/s", "errors", "p50", "p90", "p99", "p99.9", "max");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = totals.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                printLine(out, operation.getName(), operation.getCategory().name().toLowerCase(), histogram,
+                        errors.get(operation).sum(), elapsedSeconds);
+            }
+        }
+        long totalErrors = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        printLine(out, "all", "", overall(), totalErrors, elapsedSeconds);
+    }
+
+    private static void printLine(PrintStream out, String name, String type, Histogram histogram,
+                                  long errors, double elapsedSeconds) {
+        out.printf("%-16s %-7s %9d %9.1f %8d %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                name, type, histogram.getTotalCount(), histogram.getTotalCount() / elapsedSeconds, errors,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
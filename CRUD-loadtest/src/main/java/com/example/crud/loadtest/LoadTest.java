@@ -0,0 +1,280 @@
+package com.example.crud.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the contacts API with a configurable mix of requests and reports latency percentiles per endpoint.
+ *
+ * Modes:
+ * <ul>
+ *     <li>{@code run} - sends requests at a fixed average rate (an open model: new requests keep arriving
+ *     whether or not earlier ones have finished), optionally seeding contacts first</li>
+ *     <li>{@code seed} - creates contacts through the API</li>
+ *     <li>{@code generate} - writes an SQL script with millions of contacts, for loading straight into the database</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestConfig config;
+
+    private final HttpClient client;
+
+    private final ContactDataGenerator generator;
+
+    private final LatencyReport report = new LatencyReport();
+
+    // Ids are handed out in sequence by the app, so any id up to the highest seen is a plausible target
+    private final AtomicLong maxId = new AtomicLong();
+
+    private final AtomicLong nextContact = new AtomicLong();
+
+    private final AtomicLong inFlight = new AtomicLong();
+
+    public LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.generator = new ContactDataGenerator(config.getRandomSeed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        switch (config.getMode()) {
+            case "generate":
+                generateSql(config);
+                break;
+            case "seed":
+                new LoadTest(config).seed();
+                break;
+            case "run":
+                LoadTest loadTest = new LoadTest(config);
+                if (config.getSeedContacts() > 0) {
+                    loadTest.seed();
+                } else {
+                    loadTest.discoverContacts();
+                }
+                loadTest.run();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + config.getMode());
+        }
+    }
+
+    /**
+     * Writes {@code --rows} INSERT statements to {@code --out}. Load them from the H2 console with
+     * {@code RUNSCRIPT FROM 'contacts.sql'} into an empty contacts table.
+     */
+    static void generateSql(LoadTestConfig config) throws IOException {
+        ContactDataGenerator generator = new ContactDataGenerator(config.getRandomSeed());
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(config.getOutputFile()), StandardCharsets.UTF_8)) {
+            for (long n = 0; n < config.getGenerateRows(); n++) {
+                writer.write(generator.contactSql(n));
+                writer.newLine();
+            }
+            // Keep ids generated by the app from colliding with the inserted ones
+            writer.write("ALTER SEQUENCE hibernate_sequence RESTART WITH " + (config.getGenerateRows() + 1) + ";");
+            writer.newLine();
+        }
+        System.out.println("Wrote " + config.getGenerateRows() + " contacts to " + config.getOutputFile());
+    }
+
+    /**
+     * Creates {@code --seed} contacts through POST /api/contacts, a bounded number at a time.
+     */
+    void seed() throws InterruptedException {
+        long count = config.getSeedContacts();
+        Semaphore permits = new Semaphore(config.getSeedConcurrency());
+        long started = System.nanoTime();
+        for (long n = 0; n < count; n++) {
+            permits.acquire();
+            client.sendAsync(post("/api/contacts", generator.contactJson(n)), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        if (response != null) {
+                            updateMaxId(response.body());
+                        }
+                        permits.release();
+                    });
+            if ((n + 1) % 10_000 == 0) {
+                System.out.println("Seeded " + (n + 1) + " contacts");
+            }
+        }
+        permits.acquire(config.getSeedConcurrency());
+        nextContact.set(count);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("Seeded %d contacts in %.1f s (%.0f/s)%n", count, seconds, count / seconds);
+    }
+
+    /**
+     * Finds the highest existing contact id when the run does not seed its own contacts.
+     */
+    void discoverContacts() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(get("/api/contacts?fields=id"), HttpResponse.BodyHandlers.ofString());
+        updateMaxId(response.body());
+        nextContact.set(maxId.get());
+        System.out.println("Found contacts up to id " + maxId.get());
+    }
+
+    /**
+     * Sends requests at {@code --rate} per second on average with exponentially distributed gaps, for the warmup
+     * and then the measured duration, and prints the report.
+     */
+    void run() throws IOException, InterruptedException {
+        Map<Operation, Integer> mix = config.getMix();
+        Operation[] operations = mix.keySet().toArray(new Operation[0]);
+        int[] cumulativeWeights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            totalWeight += mix.get(operations[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        SplittableRandom random = new SplittableRandom(config.getRandomSeed());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+        long start = System.nanoTime();
+        long measuredFrom = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long end = measuredFrom + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        System.out.printf("Running %.0f req/s for %d s after %d s of warmup against %s%n",
+                config.getRate(), config.getDurationSeconds(), config.getWarmupSeconds(), config.getBaseUrl());
+
+        long scheduled = start;
+        while (scheduled < end) {
+            long now = System.nanoTime();
+            if (scheduled > now) {
+                LockSupport.parkNanos(scheduled - now);
+            }
+
+            int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= pick) {
+                index++;
+            }
+            send(operations[index], scheduled, scheduled >= measuredFrom, random);
+
+            scheduled += (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        // Throughput over the time the measured requests actually took, which is longer than configured
+        // when the sender fell behind its schedule or the last responses were slow
+        double measuredSeconds = (System.nanoTime() - measuredFrom) / 1e9;
+
+        report.collect();
+        report.print(System.out, measuredSeconds);
+        if (config.getHistogramFile() != null) {
+            try (PrintStream out = new PrintStream(config.getHistogramFile(), StandardCharsets.UTF_8)) {
+                // Percentile distribution in milliseconds, readable by the HdrHistogram plotter
+                report.overall().outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+    }
+
+    private void send(Operation operation, long scheduledNanos, boolean measured, SplittableRandom random) {
+        HttpRequest request = buildRequest(operation, random);
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    inFlight.decrementAndGet();
+                    if (response != null && operation == Operation.CREATE) {
+                        updateMaxId(response.body());
+                    }
+                    if (measured) {
+                        boolean failed = error != null || response.statusCode() >= 500;
+                        report.record(operation, System.nanoTime() - scheduledNanos, failed);
+                    }
+                });
+    }
+
+    private HttpRequest buildRequest(Operation operation, SplittableRandom random) {
+        long anyContact = random.nextLong(Math.max(1, nextContact.get()));
+        switch (operation) {
+            case GET_BY_ID:
+                return get("/api/contacts/" + randomId(random));
+            case LIST_ALL:
+                return get("/api/contacts");
+            case LIST_FIELDS:
+                return get("/api/contacts?fields=id,firstName,lastName");
+            case SEARCH_PHONE:
+                return get("/api/contacts?phoneNumber=" + encode(generator.phoneNumber(anyContact)));
+            case SEARCH_FIRST_NAME:
+                return get("/api/contacts/getByFirstName?firstName=" + encode(generator.firstName(anyContact)));
+            case CREATE:
+                return post("/api/contacts", generator.contactJson(nextContact.getAndIncrement()));
+            case UPDATE:
+                return HttpRequest.newBuilder(uri("/api/contacts/" + randomId(random)))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(generator.contactJson(anyContact)))
+                        .build();
+            case DELETE:
+                return HttpRequest.newBuilder(uri("/api/contacts/" + randomId(random)))
+                        .timeout(REQUEST_TIMEOUT)
+                        .DELETE()
+                        .build();
+            default:
+                throw new IllegalStateException("Unhandled operation: " + operation);
+        }
+    }
+
+    private long randomId(SplittableRandom random) {
+        return 1 + random.nextLong(Math.max(1, maxId.get()));
+    }
+
+    private void updateMaxId(String body) {
+        if (body == null) {
+            return;
+        }
+        Matcher matcher = ID_PATTERN.matcher(body);
+        while (matcher.find()) {
+            long id = Long.parseLong(matcher.group(1));
+            maxId.accumulateAndGet(id, Math::max);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(config.getBaseUrl() + path);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
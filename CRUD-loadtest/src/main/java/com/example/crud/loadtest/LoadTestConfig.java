@@ -0,0 +1,157 @@
+package com.example.crud.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for one load test run, read from "--name=value" command line arguments.
+ */
+public class LoadTestConfig {
+
+    // Roughly a list view workload: mostly single reads and searches, some writes
+    static final String DEFAULT_MIX = "getById:45,listFields:5,searchPhone:15,searchFirstName:15,create:10,update:8,delete:2";
+
+    private String mode = "run";
+    private String baseUrl = "http://localhost:2222";
+    private double rate = 200;
+    private int durationSeconds = 60;
+    private int warmupSeconds = 10;
+    private long seedContacts = 0;
+    private int seedConcurrency = 32;
+    private long generateRows = 1_000_000;
+    private String outputFile = "contacts.sql";
+    private String histogramFile;
+    private long randomSeed = 42;
+    private Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+
+    /**
+     * @param args arguments such as "--rate=500" or "--mix=getById:80,create:20"
+     * @return the config, with defaults for anything not given
+     * @throws IllegalArgumentException if an argument is unknown or malformed
+     */
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "mode":
+                    config.mode = value;
+                    break;
+                case "baseUrl":
+                    config.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "rate":
+                    config.rate = Double.parseDouble(value);
+                    break;
+                case "duration":
+                    config.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "warmup":
+                    config.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    config.seedContacts = Long.parseLong(value);
+                    break;
+                case "seedConcurrency":
+                    config.seedConcurrency = Integer.parseInt(value);
+                    break;
+                case "rows":
+                    config.generateRows = Long.parseLong(value);
+                    break;
+                case "out":
+                    config.outputFile = value;
+                    break;
+                case "histogramFile":
+                    config.histogramFile = value;
+                    break;
+                case "randomSeed":
+                    config.randomSeed = Long.parseLong(value);
+                    break;
+                case "mix":
+                    config.mix = parseMix(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: --" + name);
+            }
+        }
+        if (config.rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        return config;
+    }
+
+    /**
+     * @param mix comma-separated "operation:weight" pairs, e.g. "getById:80,create:20"
+     * @return the weight of each operation; operations not listed get no traffic
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + entry);
+            }
+            weights.put(Operation.fromName(parts[0].trim()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one operation needs a positive weight");
+        }
+        return weights;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public long getSeedContacts() {
+        return seedContacts;
+    }
+
+    public int getSeedConcurrency() {
+        return seedConcurrency;
+    }
+
+    public long getGenerateRows() {
+        return generateRows;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public String getHistogramFile() {
+        return histogramFile;
+    }
+
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+}
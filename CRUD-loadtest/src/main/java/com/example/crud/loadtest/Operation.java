@@ -0,0 +1,50 @@
+package com.example.crud.loadtest;
+
+/**
+ * The requests a load test can send, one per /api/contacts endpoint.
+ */
+public enum Operation {
+
+    GET_BY_ID("getById", Category.READ),
+    LIST_ALL("listAll", Category.READ),
+    LIST_FIELDS("listFields", Category.READ),
+    SEARCH_PHONE("searchPhone", Category.SEARCH),
+    SEARCH_FIRST_NAME("searchFirstName", Category.SEARCH),
+    CREATE("create", Category.WRITE),
+    UPDATE("update", Category.WRITE),
+    DELETE("delete", Category.WRITE);
+
+    public enum Category {
+        READ, SEARCH, WRITE
+    }
+
+    private final String name;
+
+    private final Category category;
+
+    Operation(String name, Category category) {
+        this.name = name;
+        this.category = category;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    /**
+     * @param name the name used in "--mix", e.g. "getById"
+     * @throws IllegalArgumentException if no operation has that name
+     */
+    public static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.crud;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shuts the application down as soon as it is ready when crud.startup.exit-after-ready=true.
+ * The cds build profile uses this for the training run that records the class-data-sharing archive.
+ */
+@Component
+@ConditionalOnProperty(name = "crud.startup.exit-after-ready", havingValue = "true")
+public class ExitAfterStartupListener implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
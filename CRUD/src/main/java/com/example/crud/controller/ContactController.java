@@ -1,11 +1,18 @@
 package com.example.crud.controller;
 
+import com.example.crud.geo.SpatialIndex;
 import com.example.crud.model.Contact;
+import com.example.crud.query.ContactQueryPlanner;
+import com.example.crud.query.QueryPlan;
 import com.example.crud.repository.ContactRepository;
+import com.example.crud.service.CoalescingContactReader;
+import com.example.crud.tenant.TenantContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -20,8 +27,13 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.naming.directory.InvalidAttributesException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 
 @RestController
@@ -31,9 +43,19 @@ public class ContactController {
     @Autowired
     ContactRepository contactRepository;
 
+    // Single-flight reads for the lookups that spike under load
+    @Autowired
+    CoalescingContactReader contactReader;
+
+    @Autowired
+    ContactQueryPlanner queryPlanner;
+
+    @Autowired
+    SpatialIndex spatialIndex;
+
 
     /**
-     * Retrieves a list of all contacts from the database, or all contacts containing the provided phone number.
+     * Retrieves a list of all contacts of the current tenant, or all its contacts containing the provided phone number.
      *
      * @param phoneNumber An optional phone number to search for in the contacts list.
      * @return A ResponseEntity object containing either the list of contacts, or a NO_CONTENT status if the list is empty.
@@ -43,11 +65,13 @@ public class ContactController {
         try {
             List<Contact> contacts = new ArrayList<>();
 
-            // Retrieves all contacts from the database if no phone number is provided
+            String tenantId = TenantContext.getTenantId();
+
+            // Retrieves all contacts of the tenant if no phone number is provided
             if (!phoneNumber.isPresent()) {
-                contactRepository.findAll().forEach(contacts::add);
+                contactRepository.findByTenantId(tenantId).forEach(contacts::add);
             } else {
-                contactRepository.findByPhoneNumberContaining(phoneNumber.get()).forEach(contacts::add);
+                contactRepository.findByTenantIdAndPhoneNumberContaining(tenantId, phoneNumber.get()).forEach(contacts::add);
             }
 
             // If the list is empty, return to NO_CONTENT status
@@ -58,6 +82,150 @@ public class ContactController {
     }
 
 
+    /**
+     * Retrieves only the requested columns of all contacts, or of the contacts containing the provided phone number.
+     * List views that show a few columns use this instead of loading full Contact entities.
+     *
+     * @param fields A comma-separated list of Contact field names to return, e.g. "id,firstName,lastName".
+     * @param phoneNumber An optional phone number to search for in the contacts list.
+     * @return A ResponseEntity object containing the selected fields of each contact, a NO_CONTENT status if the list is empty,
+     *         or a BAD_REQUEST status if a field name is unknown.
+     */
+    @GetMapping(value = "/contacts", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllContactFields(@RequestParam String fields,
+                                                                         @RequestParam(required = false) Optional<String> phoneNumber) {
+        try {
+            String tenantId = TenantContext.getTenantId();
+            List<String> selectedFields = parseFields(fields);
+            List<Map<String, Object>> contacts = phoneNumber.isPresent()
+                    ? contactRepository.findFieldsByPhoneNumberContaining(tenantId, selectedFields, phoneNumber.get())
+                    : contactRepository.findAllFields(tenantId, selectedFields);
+
+            return contacts.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(contacts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+    /**
+     * Queries the contacts of the current tenant by any combination of field filters, sorted and limited.
+     * Filters that no index can answer would read every contact of the tenant, so they are rejected unless allowScan is set.
+     *
+     * @param filter Filters in the form field:operator:value, where operator is eq, prefix, gt, gte, lt or lte, e.g. "lastName:prefix:Wa".
+     * @param sort An optional comma-separated list of sort fields, each prefixed with "-" for descending order, e.g. "lastName,-id".
+     * @param limit The maximum number of contacts to return, 100 by default and at most 1000.
+     * @param allowScan Whether to run a query that no index can answer.
+     * @return A ResponseEntity containing the matching contacts, a NO_CONTENT status if there are none,
+     *         or a BAD_REQUEST status if the query is invalid or would scan without allowScan. Plan warnings are sent as Warning headers.
+     */
+    @GetMapping("/contacts/query")
+    public ResponseEntity<List<Contact>> queryContacts(@RequestParam(required = false) List<String> filter,
+                                                       @RequestParam(required = false) List<String> sort,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(defaultValue = "false") boolean allowScan) {
+        try {
+            QueryPlan plan = queryPlanner.plan(orEmpty(filter), orEmpty(sort), limit);
+            HttpHeaders headers = warningHeaders(plan);
+
+            if (plan.isScan() && !allowScan) {
+                return ResponseEntity.badRequest().headers(headers).build();
+            }
+
+            List<Contact> contacts = contactRepository.findByPlan(TenantContext.getTenantId(), plan);
+
+            return contacts.isEmpty() ? ResponseEntity.noContent().headers(headers).build() : ResponseEntity.ok().headers(headers).body(contacts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+    /**
+     * Explains how GET /contacts/query would run the given query without running it:
+     * the chosen index, the filters it answers, the filters checked row by row and whether the index delivers the order.
+     *
+     * @param filter Filters in the form field:operator:value.
+     * @param sort An optional comma-separated list of sort fields.
+     * @param limit The maximum number of contacts the query would return.
+     * @return A ResponseEntity containing the query plan, or a BAD_REQUEST status if the query is invalid.
+     */
+    @GetMapping(value = "/contacts/query", params = "explain=true")
+    public ResponseEntity<QueryPlan> explainContactQuery(@RequestParam(required = false) List<String> filter,
+                                                        @RequestParam(required = false) List<String> sort,
+                                                        @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(queryPlanner.plan(orEmpty(filter), orEmpty(sort), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+    /**
+     * Retrieves the contacts of the current tenant whose geocoded address lies within a radius of a point, nearest first.
+     * The search runs on the in-memory spatial index; only the matching contacts are read from the database.
+     *
+     * @param lat The latitude of the centre, from -90 to 90.
+     * @param lon The longitude of the centre, from -180 to 180.
+     * @param radiusKm The radius in kilometres, at most 1000.
+     * @param limit The maximum number of contacts to return, 100 by default and at most 1000.
+     * @return A ResponseEntity containing the matching contacts, a NO_CONTENT status if there are none,
+     *         or a BAD_REQUEST status if a parameter is out of range.
+     */
+    @GetMapping("/contacts/near")
+    public ResponseEntity<List<Contact>> getContactsNear(@RequestParam double lat, @RequestParam double lon,
+                                                         @RequestParam double radiusKm,
+                                                         @RequestParam(defaultValue = "" + SpatialIndex.DEFAULT_LIMIT) int limit) {
+        try {
+            String tenantId = TenantContext.getTenantId();
+            List<Contact> contacts = findInOrder(tenantId, spatialIndex.findWithinRadius(tenantId, lat, lon, radiusKm, limit));
+
+            return contacts.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(contacts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+    /**
+     * Retrieves the contacts of the current tenant whose geocoded address lies within a bounding box, nearest to its centre first.
+     *
+     * @param minLat The southern edge.
+     * @param minLon The western edge; greater than maxLon for a box that crosses the antimeridian.
+     * @param maxLat The northern edge.
+     * @param maxLon The eastern edge.
+     * @param limit The maximum number of contacts to return, 100 by default and at most 1000.
+     * @return A ResponseEntity containing the matching contacts, a NO_CONTENT status if there are none,
+     *         or a BAD_REQUEST status if a parameter is out of range.
+     */
+    @GetMapping("/contacts/within")
+    public ResponseEntity<List<Contact>> getContactsWithin(@RequestParam double minLat, @RequestParam double minLon,
+                                                           @RequestParam double maxLat, @RequestParam double maxLon,
+                                                           @RequestParam(defaultValue = "" + SpatialIndex.DEFAULT_LIMIT) int limit) {
+        try {
+            String tenantId = TenantContext.getTenantId();
+            List<Contact> contacts = findInOrder(tenantId, spatialIndex.findWithinBox(tenantId, minLat, minLon, maxLat, maxLon, limit));
+
+            return contacts.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(contacts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
     /**
      * Retrieves a single Contact instance by ID.
      *
@@ -72,7 +240,7 @@ public class ContactController {
                 return ResponseEntity.badRequest().build();
             }
 
-            Optional<Contact> contactData = contactRepository.findById(id);
+            Optional<Contact> contactData = contactReader.findById(TenantContext.getTenantId(), id);
 
             // If the contact exists, return it with a status of OK
             if (contactData.isPresent()) {
@@ -103,7 +271,7 @@ public class ContactController {
     @GetMapping("/contacts/getByFirstName")
     public ResponseEntity<List<Contact>> getContactsByFirstName(@RequestParam String firstName) {
         try {
-            List<Contact> contacts = contactRepository.findByFirstName(firstName);
+            List<Contact> contacts = contactReader.findByFirstName(TenantContext.getTenantId(), firstName);
 
             if (contacts.isEmpty()) {
                 return ResponseEntity.noContent().build();
@@ -122,6 +290,31 @@ public class ContactController {
     }
 
 
+    /**
+     * Returns only the requested columns of the contacts with the matching first name.
+     *
+     * @param firstName The first name to search for in the database
+     * @param fields A comma-separated list of Contact field names to return
+     * @return A ResponseEntity containing the selected fields of each matching contact, an HTTP status NO_CONTENT if none are found,
+     *         or BAD_REQUEST if a field name is unknown
+     */
+    @GetMapping(value = "/contacts/getByFirstName", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getContactFieldsByFirstName(@RequestParam String firstName,
+                                                                                 @RequestParam String fields) {
+        try {
+            List<Map<String, Object>> contacts = contactRepository.findFieldsByFirstName(TenantContext.getTenantId(), parseFields(fields), firstName);
+
+            return contacts.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(contacts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
     /**
      * POST endpoint for creating a new contact.
      *
@@ -139,15 +332,18 @@ public class ContactController {
                 return ResponseEntity.badRequest().build();
             }
 
-            // Check if a contact with the same phone number already exists
-            List<Contact> existingContacts = contactRepository.findByPhoneNumberContaining(contact.getPhoneNumber());
+            String tenantId = TenantContext.getTenantId();
+
+            // Check if a contact of this tenant with the same phone number already exists
+            List<Contact> existingContacts = contactRepository.findByTenantIdAndPhoneNumberContaining(tenantId, contact.getPhoneNumber());
 
             if (!existingContacts.isEmpty()) {
                 // A contact with the same phone number already exists, so return an error response
                 return new ResponseEntity<>(HttpStatus.CONFLICT);
             }
 
-            // No contact with the same phone number exists, so save the new contacts
+            // No contact with the same phone number exists, so save the new contact under the tenant
+            contact.setTenantId(tenantId);
             return ResponseEntity.status(HttpStatus.CREATED).body(contactRepository.save(contact));
         } catch (DataAccessException e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -166,7 +362,8 @@ public class ContactController {
      *
      * @param id the ID of the contact to update
      * @param contact the updated contact details to save
-     * @return a response entity containing the updated contact if successful, or a NOT_FOUND response if the contact is not found
+     * @return a response entity containing the updated contact if successful, a NOT_FOUND response if the contact is not found,
+     *         or a CONFLICT response if the contact was changed concurrently and the update should be retried
      */
     @PutMapping("/contacts/{id}")
     public ResponseEntity<Contact> updateContact(@PathVariable("id") long id, @RequestBody Contact contact) {
@@ -177,7 +374,7 @@ public class ContactController {
                 return ResponseEntity.badRequest().build();
             }
 
-            Optional<Contact> contactData = contactRepository.findById(id);
+            Optional<Contact> contactData = contactRepository.findByTenantIdAndId(TenantContext.getTenantId(), id);
 
             if (contactData.isPresent()) {
                 Contact _contact = contactData.get();
@@ -193,6 +390,8 @@ public class ContactController {
             }
         } catch (EmptyResultDataAccessException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         } catch (DataIntegrityViolationException e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -202,11 +401,11 @@ public class ContactController {
 
 
     /**
-     * Deletes a contact with the given ID from the database.
+     * Deletes a contact of the current tenant with the given ID from the database.
      *
      * @param id the ID of the contact to delete
      * @return a ResponseEntity with HTTP status NO_CONTENT if the contact was successfully deleted,
-     *         or INTERNAL_SERVER_ERROR if there was an error
+     *         NOT_FOUND if the tenant has no such contact, or INTERNAL_SERVER_ERROR if there was an error
      */
     @DeleteMapping("/contacts/{id}")
     public ResponseEntity<HttpStatus> deleteContact(@PathVariable("id") long id) {
@@ -214,7 +413,9 @@ public class ContactController {
             if (id <= 0L) {
                 return ResponseEntity.badRequest().build();
             }
-            contactRepository.deleteById(id);
+            if (contactRepository.deleteByTenantIdAndId(TenantContext.getTenantId(), id) == 0) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (EmptyResultDataAccessException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -225,14 +426,17 @@ public class ContactController {
 
 
     /**
-     * Delete all contacts from the database.
+     * Delete all contacts of the current tenant from the database.
      * @return ResponseEntity with HTTP status NO_CONTENT if all contacts were deleted successfully,
      *         or HTTP status code 500 (INTERNAL_SERVER_ERROR) if an error occurred while deleting the contacts.
      */
     @DeleteMapping("/contacts")
     public ResponseEntity<HttpStatus> deleteAllContacts() {
         try {
-            contactRepository.deleteAll();
+            String tenantId = TenantContext.getTenantId();
+            contactRepository.deleteByTenantId(tenantId);
+            // The bulk delete skips the geo listener, so the tenant's points are dropped here once it has committed
+            spatialIndex.removeTenant(tenantId);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -240,4 +444,52 @@ public class ContactController {
     }
 
 
+    /**
+     * Loads the contacts with the given ids in the given order, skipping any deleted since they were found.
+     */
+    private List<Contact> findInOrder(String tenantId, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Contact> contacts = contactRepository.findByTenantIdAndIdIn(tenantId, ids).stream()
+                .filter(contact -> contact.getId() != null)
+                .collect(Collectors.toMap(Contact::getId, Function.identity(), (first, second) -> first));
+        return ids.stream().map(contacts::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+
+    private static List<String> orEmpty(List<String> values) {
+        return values == null ? List.of() : values;
+    }
+
+
+    // Plan warnings as RFC 7234 "199 Miscellaneous warning" headers
+    private static HttpHeaders warningHeaders(QueryPlan plan) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String warning : plan.getWarnings()) {
+            headers.add(HttpHeaders.WARNING, "199 - \"" + warning.replace("\"", "'") + "\"");
+        }
+        return headers;
+    }
+
+
+    /**
+     * Splits a "fields" request parameter into distinct, trimmed field names.
+     *
+     * @throws IllegalArgumentException if no field name is given
+     */
+    private static List<String> parseFields(String fields) {
+        List<String> selectedFields = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+
+        if (selectedFields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be selected");
+        }
+        return selectedFields;
+    }
+
+
 }
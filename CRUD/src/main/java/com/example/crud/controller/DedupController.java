@@ -0,0 +1,89 @@
+package com.example.crud.controller;
+
+import com.example.crud.model.DuplicateGroup;
+import com.example.crud.service.DedupService;
+import com.example.crud.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+@RestController
+@RequestMapping("/api/dedup")
+public class DedupController {
+
+    @Autowired
+    DedupService dedupService;
+
+
+    /**
+     * Starts a background scan of all contacts for near-duplicates. Contacts are only ever grouped with
+     * contacts of the same tenant.
+     *
+     * @return ACCEPTED with the scan status if the scan was started, or CONFLICT if a scan or merge is already running
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<Map<String, Object>> startScan() {
+        try {
+            boolean started = dedupService.startScan();
+            return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(dedupService.getStatus(TenantContext.getTenantId()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+    /**
+     * @return the state of the last scan, with the number of groups it proposed for the current tenant
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(dedupService.getStatus(TenantContext.getTenantId()));
+    }
+
+
+    /**
+     * Retrieves the merge groups of the current tenant proposed by the last scan.
+     *
+     * @return the proposed groups, or a NO_CONTENT status if there are none
+     */
+    @GetMapping("/groups")
+    public ResponseEntity<List<DuplicateGroup>> getGroups() {
+        try {
+            List<DuplicateGroup> groups = dedupService.getProposals(TenantContext.getTenantId());
+            return groups.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(groups);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+    /**
+     * Merges proposed groups of the current tenant into their survivors and deletes the duplicates.
+     *
+     * @param groupIds the ids of the groups to merge; an empty or missing body merges every proposed group of the tenant
+     * @return the number of groups merged, or CONFLICT if a scan or another merge is running
+     */
+    @PostMapping("/merge")
+    public ResponseEntity<Map<String, Integer>> merge(@RequestBody(required = false) List<String> groupIds) {
+        try {
+            int merged = dedupService.merge(TenantContext.getTenantId(), groupIds == null ? Collections.emptyList() : groupIds);
+            return ResponseEntity.ok(Collections.singletonMap("merged", merged));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+}
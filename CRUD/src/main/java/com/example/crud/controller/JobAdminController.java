@@ -0,0 +1,79 @@
+package com.example.crud.controller;
+
+import com.example.crud.job.JobRunner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+
+@RestController
+@RequestMapping("/admin/jobs")
+public class JobAdminController {
+
+    @Autowired
+    JobRunner jobRunner;
+
+
+    /**
+     * Retrieves the progress of every background job.
+     *
+     * @return the state, checkpoint and throughput of each job
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getJobs() {
+        try {
+            return ResponseEntity.ok(jobRunner.getProgress());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+    /**
+     * Starts a job, or resumes it from its last checkpoint.
+     *
+     * @param name the job name, e.g. "normalize-phone"
+     * @param restart true to start over from the first contact
+     * @return ACCEPTED if the job was started, CONFLICT if it is already running, or NOT_FOUND if there is no such job
+     */
+    @PostMapping("/{name}/start")
+    public ResponseEntity<HttpStatus> startJob(@PathVariable("name") String name,
+                                               @RequestParam(defaultValue = "false") boolean restart) {
+        try {
+            return new ResponseEntity<>(jobRunner.start(name, restart) ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+
+    /**
+     * Stops a running job after the chunks it is working on. The job keeps its checkpoint and can be resumed.
+     *
+     * @param name the job name
+     * @return ACCEPTED if the job is stopping, CONFLICT if it is not running, or NOT_FOUND if there is no such job
+     */
+    @PostMapping("/{name}/stop")
+    public ResponseEntity<HttpStatus> stopJob(@PathVariable("name") String name) {
+        try {
+            return new ResponseEntity<>(jobRunner.stop(name) ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+
+}
@@ -0,0 +1,55 @@
+package com.example.crud.controller;
+
+import com.example.crud.perf.ConnectionPoolMonitor;
+import com.example.crud.perf.LatencyMonitor;
+import com.example.crud.service.CoalescingContactReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+@RestController
+@RequestMapping("/admin")
+public class PerfAdminController {
+
+    @Autowired
+    CoalescingContactReader contactReader;
+
+    @Autowired
+    LatencyMonitor latencyMonitor;
+
+    @Autowired
+    ConnectionPoolMonitor connectionPoolMonitor;
+
+
+    /**
+     * Retrieves how many contact lookups shared an in-flight database call with an identical concurrent lookup.
+     *
+     * @return per lookup: calls, database executions, coalesced calls, their ratio, and keys currently in flight
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCoalescingMetrics() {
+        return ResponseEntity.ok(contactReader.getMetrics());
+    }
+
+
+    /**
+     * Retrieves this node's own view of its performance, for diagnosing a slow node without external metrics.
+     *
+     * @return per contact endpoint and per repository query: count, throughput and p50/p99/max latency over the last
+     *         1m, 5m and 1h; the slowest calls of the last hour; and the saturation of the database connection pool
+     */
+    @GetMapping("/perf")
+    public ResponseEntity<Map<String, Object>> getPerf() {
+        Map<String, Object> perf = new LinkedHashMap<>(latencyMonitor.getMetrics());
+        perf.put("connectionPool", connectionPoolMonitor.getMetrics());
+        return ResponseEntity.ok(perf);
+    }
+
+
+}
@@ -0,0 +1,73 @@
+package com.example.crud.geo;
+
+import com.example.crud.model.Contact;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Fills in a contact's structured address and coordinates from its free-text address.
+ */
+@Component
+public class AddressGeocoder {
+
+    // About 150 m cells. Coordinates are postal code or city centroids from the gazetteer, so the real precision is
+    // that of the centroid: every contact of a postal code gets the same geohash, and shorter prefixes group nearby areas
+    static final int GEOHASH_PRECISION = 7;
+
+    private final Gazetteer gazetteer;
+
+    private final String defaultCountry;
+
+    public AddressGeocoder(Gazetteer gazetteer, @Value("${crud.geo.default-country:US}") String defaultCountry) {
+        this.gazetteer = gazetteer;
+        this.defaultCountry = defaultCountry;
+    }
+
+    /**
+     * Sets street, city, region, postal code, country, latitude, longitude and geohash from the contact's address.
+     * Parts the gazetteer knows but the address leaves out, such as the city of a postal code, are filled in from it.
+     *
+     * @return true if any of those fields changed
+     */
+    public boolean geocode(Contact contact) {
+        NormalizedAddress address = AddressNormalizer.normalize(contact.getAddress(), defaultCountry);
+        Place place = gazetteer.locate(address).orElse(null);
+
+        String city = address.getCity();
+        String region = address.getRegion();
+        String postalCode = address.getPostalCode();
+        Double latitude = null;
+        Double longitude = null;
+        String geohash = null;
+        if (place != null) {
+            city = city != null ? city : place.getCity();
+            region = region != null ? region : place.getRegion();
+            postalCode = postalCode != null ? postalCode : place.getPostalCode();
+            latitude = place.getLatitude();
+            longitude = place.getLongitude();
+            geohash = Geohash.encode(latitude, longitude, GEOHASH_PRECISION);
+        }
+
+        boolean changed = !Objects.equals(contact.getStreet(), address.getStreet())
+                || !Objects.equals(contact.getCity(), city)
+                || !Objects.equals(contact.getRegion(), region)
+                || !Objects.equals(contact.getPostalCode(), postalCode)
+                || !Objects.equals(contact.getCountry(), address.getCountry())
+                || !Objects.equals(contact.getLatitude(), latitude)
+                || !Objects.equals(contact.getLongitude(), longitude)
+                || !Objects.equals(contact.getGeohash(), geohash);
+        if (changed) {
+            contact.setStreet(address.getStreet());
+            contact.setCity(city);
+            contact.setRegion(region);
+            contact.setPostalCode(postalCode);
+            contact.setCountry(address.getCountry());
+            contact.setLatitude(latitude);
+            contact.setLongitude(longitude);
+            contact.setGeohash(geohash);
+        }
+        return changed;
+    }
+}
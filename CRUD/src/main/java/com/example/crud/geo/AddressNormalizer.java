@@ -0,0 +1,123 @@
+package com.example.crud.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits free-text addresses such as "123 Main St, Springfield, IL 62704, USA" into street, city, region,
+ * postal code and country. Addresses are read as comma-separated parts from the end: an optional country,
+ * then a region and postal code, then the city, with whatever comes first being the street.
+ */
+public final class AddressNormalizer {
+
+    private static final Pattern US_POSTAL_CODE = Pattern.compile("(\\d{5})(?:-\\d{4})?$");
+
+    private static final Pattern CA_POSTAL_CODE = Pattern.compile("([A-Za-z]\\d[A-Za-z])\\s?(\\d[A-Za-z]\\d)$");
+
+    private static final Pattern REGION_CODE = Pattern.compile("(?:^|\\s)([A-Za-z]{2})$");
+
+    private static final Map<String, String> COUNTRIES = Map.of(
+            "US", "US", "USA", "US", "U.S.A.", "US", "UNITED STATES", "US", "UNITED STATES OF AMERICA", "US",
+            "CANADA", "CA", "CAN", "CA");
+
+    // Street types, only expanded as the last word of the street so "St Marks Pl" keeps its "St"
+    private static final Map<String, String> STREET_TYPES = Map.ofEntries(
+            Map.entry("ST", "Street"), Map.entry("AVE", "Avenue"), Map.entry("AV", "Avenue"), Map.entry("RD", "Road"),
+            Map.entry("BLVD", "Boulevard"), Map.entry("DR", "Drive"), Map.entry("LN", "Lane"), Map.entry("CT", "Court"),
+            Map.entry("PL", "Place"), Map.entry("SQ", "Square"), Map.entry("HWY", "Highway"), Map.entry("PKWY", "Parkway"),
+            Map.entry("TER", "Terrace"), Map.entry("CIR", "Circle"));
+
+    private AddressNormalizer() {
+
+    }
+
+    /**
+     * @param address the address as entered
+     * @param defaultCountry the ISO country code to assume when the address names none
+     * @return the parts of the address, all null if there is no address
+     */
+    public static NormalizedAddress normalize(String address, String defaultCountry) {
+        List<String> parts = new ArrayList<>();
+        if (address != null) {
+            for (String part : address.split("[,\\n]")) {
+                String trimmed = part.trim().replaceAll("\\s+", " ");
+                if (!trimmed.isEmpty()) {
+                    parts.add(trimmed);
+                }
+            }
+        }
+
+        if (parts.isEmpty()) {
+            return new NormalizedAddress(null, null, null, null, null);
+        }
+
+        String country = defaultCountry;
+        if (parts.size() > 1) {
+            String named = COUNTRIES.get(parts.get(parts.size() - 1).toUpperCase(Locale.ROOT));
+            if (named != null) {
+                country = named;
+                parts.remove(parts.size() - 1);
+            }
+        }
+
+        String region = null;
+        String postalCode = null;
+        String city = null;
+        // The last part may hold "IL 62704", "62704", "IL", "Toronto ON M5V 3L9" or just the city
+        String last = parts.get(parts.size() - 1);
+        Matcher postal = US_POSTAL_CODE.matcher(last);
+        Matcher canadian = CA_POSTAL_CODE.matcher(last);
+        if (postal.find()) {
+            postalCode = postal.group(1);
+            last = last.substring(0, postal.start()).trim();
+        } else if (canadian.find()) {
+            postalCode = (canadian.group(1) + " " + canadian.group(2)).toUpperCase(Locale.ROOT);
+            last = last.substring(0, canadian.start()).trim();
+        }
+        Matcher regionCode = REGION_CODE.matcher(last);
+        if ((postalCode != null || parts.size() > 1) && regionCode.find()) {
+            region = regionCode.group(1).toUpperCase(Locale.ROOT);
+            last = last.substring(0, regionCode.start()).trim();
+        }
+        if (postalCode != null || region != null) {
+            parts.remove(parts.size() - 1);
+            if (!last.isEmpty()) {
+                city = titleCase(last);
+            }
+        }
+
+        String street = null;
+        if (!parts.isEmpty()) {
+            if (city == null && (parts.size() > 1 || !Character.isDigit(parts.get(0).charAt(0)))) {
+                city = titleCase(parts.remove(parts.size() - 1));
+            }
+            if (!parts.isEmpty()) {
+                street = normalizeStreet(String.join(", ", parts));
+            }
+        }
+        return new NormalizedAddress(street, city, region, postalCode, country);
+    }
+
+    private static String normalizeStreet(String street) {
+        String[] words = street.replace(".", "").split(" ");
+        String type = STREET_TYPES.get(words[words.length - 1].toUpperCase(Locale.ROOT));
+        if (type != null) {
+            words[words.length - 1] = type;
+        }
+        return String.join(" ", words);
+    }
+
+    private static String titleCase(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean startOfWord = true;
+        for (char c : text.toCharArray()) {
+            result.append(startOfWord ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            startOfWord = c == ' ' || c == '-' || c == '\'';
+        }
+        return result.toString();
+    }
+}
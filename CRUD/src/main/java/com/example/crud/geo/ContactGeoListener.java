@@ -0,0 +1,73 @@
+package com.example.crud.geo;
+
+import com.example.crud.model.Contact;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * JPA entity listener that geocodes a contact's address on every save and keeps the {@link SpatialIndex} in step
+ * with the contacts table. Hibernate gets it from Spring, so it can use Spring beans.
+ *
+ * Index changes wait for the transaction to commit, so a rolled-back save never shows up in geo queries.
+ * This listener must not depend on repositories: Hibernate creates it while the EntityManagerFactory is being built.
+ */
+@Component
+public class ContactGeoListener {
+
+    private final AddressGeocoder geocoder;
+
+    private final SpatialIndex spatialIndex;
+
+    public ContactGeoListener(AddressGeocoder geocoder, SpatialIndex spatialIndex) {
+        this.geocoder = geocoder;
+        this.spatialIndex = spatialIndex;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void geocode(Contact contact) {
+        geocoder.geocode(contact);
+    }
+
+    @PostPersist
+    @PostUpdate
+    void index(Contact contact) {
+        long id = contact.getId();
+        String tenantId = contact.getTenantId();
+        Double latitude = contact.getLatitude();
+        Double longitude = contact.getLongitude();
+        afterCommit(() -> {
+            if (latitude != null && longitude != null) {
+                spatialIndex.put(id, tenantId, latitude, longitude);
+            } else {
+                spatialIndex.remove(id);
+            }
+        });
+    }
+
+    @PostRemove
+    void unindex(Contact contact) {
+        long id = contact.getId();
+        afterCommit(() -> spatialIndex.remove(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.crud.geo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Offline lookup of coordinates by postal code or city, loaded once from a file in the GeoNames postal code
+ * format (https://download.geonames.org/export/zip/): tab-separated country code, postal code, place name,
+ * admin name 1, admin code 1, admin name 2, admin code 2, admin name 3, admin code 3, latitude, longitude, accuracy.
+ * Lines starting with # are ignored. Point crud.geo.gazetteer at a full country file to geocode real addresses;
+ * the bundled file only covers a few sample cities.
+ */
+@Component
+public class Gazetteer {
+
+    private static final Logger log = LoggerFactory.getLogger(Gazetteer.class);
+
+    private final Map<String, Place> byPostalCode = new HashMap<>();
+
+    // City centres are the mean of the city's postal code areas
+    private final Map<String, Place> byCityAndRegion = new HashMap<>();
+
+    // Only cities whose name is unique within their country
+    private final Map<String, Place> byCity = new HashMap<>();
+
+    // Addresses may name the region in full rather than by its code
+    private final Map<String, String> regionCodes = new HashMap<>();
+
+    public Gazetteer(ResourceLoader resourceLoader, @Value("${crud.geo.gazetteer:classpath:geo/gazetteer.tsv}") String location) {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            log.warn("Gazetteer {} not found, addresses will not be geocoded", location);
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read gazetteer " + location, e);
+        }
+        log.info("Loaded gazetteer {} with {} postal codes and {} cities", location, byPostalCode.size(), byCityAndRegion.size());
+    }
+
+    /**
+     * Finds the coordinates of an address by its postal code, then by its city and region,
+     * then by its city alone if no other city in the country has that name.
+     *
+     * @return the place found, or empty if the gazetteer does not know the address
+     */
+    public Optional<Place> locate(NormalizedAddress address) {
+        String country = address.getCountry();
+        if (country == null) {
+            return Optional.empty();
+        }
+        if (address.getPostalCode() != null) {
+            Place place = byPostalCode.get(key(country, address.getPostalCode()));
+            // GeoNames only lists the first half of Canadian and British postal codes
+            if (place == null && address.getPostalCode().contains(" ")) {
+                place = byPostalCode.get(key(country, address.getPostalCode().substring(0, address.getPostalCode().indexOf(' '))));
+            }
+            if (place != null) {
+                return Optional.of(place);
+            }
+        }
+        if (address.getCity() != null) {
+            if (address.getRegion() != null) {
+                String region = regionCodes.getOrDefault(key(country, address.getRegion()), address.getRegion());
+                Place place = byCityAndRegion.get(key(country, region, address.getCity()));
+                if (place != null) {
+                    return Optional.of(place);
+                }
+            }
+            return Optional.ofNullable(byCity.get(key(country, address.getCity())));
+        }
+        return Optional.empty();
+    }
+
+    private void load(BufferedReader reader) throws IOException {
+        Map<String, double[]> citySums = new HashMap<>();
+        Map<String, Place> cityNames = new HashMap<>();
+        Map<String, Set<String>> cityRegions = new HashMap<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if (columns.length < 11) {
+                continue;
+            }
+            String country = columns[0];
+            String postalCode = columns[1];
+            String city = columns[2];
+            String regionName = columns[3];
+            String region = columns[4].isEmpty() ? regionName : columns[4];
+            double latitude;
+            double longitude;
+            try {
+                latitude = Double.parseDouble(columns[9]);
+                longitude = Double.parseDouble(columns[10]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            byPostalCode.put(key(country, postalCode), new Place(city, region, postalCode, latitude, longitude));
+
+            String cityKey = key(country, region, city);
+            double[] sums = citySums.computeIfAbsent(cityKey, k -> new double[3]);
+            sums[0] += latitude;
+            sums[1] += longitude;
+            sums[2]++;
+            cityNames.putIfAbsent(cityKey, new Place(city, region, null, 0, 0));
+            cityRegions.computeIfAbsent(key(country, city), k -> new HashSet<>()).add(cityKey);
+            if (!regionName.isEmpty()) {
+                regionCodes.putIfAbsent(key(country, regionName), region);
+            }
+        }
+
+        citySums.forEach((cityKey, sums) -> {
+            Place name = cityNames.get(cityKey);
+            byCityAndRegion.put(cityKey, new Place(name.getCity(), name.getRegion(), null, sums[0] / sums[2], sums[1] / sums[2]));
+        });
+        cityRegions.forEach((cityKey, cityAndRegionKeys) -> {
+            if (cityAndRegionKeys.size() == 1) {
+                byCity.put(cityKey, byCityAndRegion.get(cityAndRegionKeys.iterator().next()));
+            }
+        });
+    }
+
+    private static String key(String... parts) {
+        return String.join("|", parts).toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.crud.geo;
+
+/**
+ * Geohash encoding. Nearby points share a geohash prefix, so a prefix filter on the geohash column
+ * finds the contacts in a cell, e.g. 5 characters for a cell of about 5 km.
+ */
+public final class Geohash {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private Geohash() {
+
+    }
+
+    /**
+     * @param latitude the latitude, from -90 to 90
+     * @param longitude the longitude, from -180 to 180
+     * @param precision the number of characters, e.g. 7 for a cell of about 150 m
+     * @return the geohash of the point
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLatitude = -90, maxLatitude = 90;
+        double minLongitude = -180, maxLongitude = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean longitudeBit = true;
+        int bits = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (longitudeBit) {
+                double middle = (minLongitude + maxLongitude) / 2;
+                value <<= 1;
+                if (longitude >= middle) {
+                    value |= 1;
+                    minLongitude = middle;
+                } else {
+                    maxLongitude = middle;
+                }
+            } else {
+                double middle = (minLatitude + maxLatitude) / 2;
+                value <<= 1;
+                if (latitude >= middle) {
+                    value |= 1;
+                    minLatitude = middle;
+                } else {
+                    maxLatitude = middle;
+                }
+            }
+            longitudeBit = !longitudeBit;
+            if (++bits == 5) {
+                hash.append(BASE32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.crud.geo;
+
+/**
+ * The parts of a free-text address, each in a canonical form. Parts the address does not contain are null.
+ */
+public class NormalizedAddress {
+
+    private final String street;
+
+    private final String city;
+
+    private final String region;
+
+    private final String postalCode;
+
+    private final String country;
+
+    public NormalizedAddress(String street, String city, String region, String postalCode, String country) {
+        this.street = street;
+        this.city = city;
+        this.region = region;
+        this.postalCode = postalCode;
+        this.country = country;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    @Override
+    public String toString() {
+        return "normalizedAddress [street=" + street + ", city=" + city + ", region=" + region
+                + ", postalCode=" + postalCode + ", country=" + country + "]";
+    }
+}
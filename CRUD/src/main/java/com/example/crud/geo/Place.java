@@ -0,0 +1,45 @@
+package com.example.crud.geo;
+
+/**
+ * A gazetteer entry: a postal code area or a city, with the coordinates of its centre.
+ */
+public class Place {
+
+    private final String city;
+
+    private final String region;
+
+    private final String postalCode;
+
+    private final double latitude;
+
+    private final double longitude;
+
+    public Place(String city, String region, String postalCode, double latitude, double longitude) {
+        this.city = city;
+        this.region = region;
+        this.postalCode = postalCode;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+}
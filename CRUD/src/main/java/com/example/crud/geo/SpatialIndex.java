@@ -0,0 +1,455 @@
+package com.example.crud.geo;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid of contact coordinates per tenant, for radius and bounding-box queries without touching the database.
+ *
+ * Cells are geohash cells of 5 characters: 2^13 columns of longitude by 2^12 rows of latitude, about 4.9 km square
+ * at the equator. A query visits only the cells its area overlaps, or, for an area with more cells than the tenant
+ * has occupied, only the occupied cells, and keeps the nearest matches in a bounded heap. Each point is also kept
+ * as a unit vector, so distances compare as straight-line chords through the Earth without any trigonometry per
+ * point; chords order points exactly as great-circle distances do. Each contact costs an id and five floats in its
+ * cell plus one map entry, and floats keep positions to about a metre.
+ */
+@Component
+public class SpatialIndex {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    public static final int MAX_LIMIT = 1000;
+
+    public static final double MAX_RADIUS_KM = 1000;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+
+    private static final int COLUMNS = 1 << 13;
+
+    private static final int ROWS = 1 << 12;
+
+    private static final double CELL_WIDTH = 360.0 / COLUMNS;
+
+    private static final double CELL_HEIGHT = 180.0 / ROWS;
+
+    // Queries share the read lock; saves take the write lock for the few microseconds of a cell update
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Map<Integer, Cell>> grids = new HashMap<>();
+
+    private final Map<Long, Placement> placements = new HashMap<>();
+
+    /**
+     * Adds a contact, or moves it if it is already in the index.
+     */
+    public void put(long id, String tenantId, double latitude, double longitude) {
+        lock.writeLock().lock();
+        try {
+            unplace(placements.remove(id), id);
+            place(id, tenantId, latitude, longitude);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a contact unless it is already in the index, so a rebuild does not undo a save made while it ran.
+     */
+    public void putIfAbsent(long id, String tenantId, double latitude, double longitude) {
+        lock.writeLock().lock();
+        try {
+            if (!placements.containsKey(id)) {
+                place(id, tenantId, latitude, longitude);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            unplace(placements.remove(id), id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every contact of a tenant, after they were deleted in bulk.
+     */
+    public void removeTenant(String tenantId) {
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Cell> grid = grids.remove(tenantId);
+            if (grid == null) {
+                return;
+            }
+            for (Cell cell : grid.values()) {
+                for (int i = 0; i < cell.size; i++) {
+                    placements.remove(cell.ids[i]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return placements.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the ids of the tenant's contacts within the radius of the point, nearest first
+     * @throws IllegalArgumentException if the point, radius or limit is out of range
+     */
+    public List<Long> findWithinRadius(String tenantId, double latitude, double longitude, double radiusKm, int limit) {
+        checkPoint(latitude, longitude);
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("Radius must be more than 0 and at most " + MAX_RADIUS_KM + " km");
+        }
+        checkLimit(limit);
+
+        double radiusDegrees = radiusKm / KM_PER_DEGREE;
+        double minLatitude = Math.max(-90, latitude - radiusDegrees);
+        double maxLatitude = Math.min(90, latitude + radiusDegrees);
+        int firstColumn = 0;
+        int columnCount = COLUMNS;
+        // Near a pole the circle spans every longitude
+        double widestLatitude = Math.max(Math.abs(minLatitude), Math.abs(maxLatitude));
+        if (widestLatitude < 90) {
+            double radiusLongitude = radiusDegrees / Math.cos(Math.toRadians(widestLatitude));
+            if (radiusLongitude < 180) {
+                firstColumn = column(longitude - radiusLongitude);
+                columnCount = Math.floorMod(column(longitude + radiusLongitude) - firstColumn, COLUMNS) + 1;
+            }
+        }
+
+        // The chord of the radius, squared, as the chord grows with the great-circle distance
+        double maxChord = 2 * Math.sin(radiusKm / EARTH_RADIUS_KM / 2);
+        double maxChordSquared = maxChord * maxChord;
+        return search(tenantId, row(minLatitude), row(maxLatitude), firstColumn, columnCount, latitude, longitude, limit,
+                (lat, lon, chordSquared) -> chordSquared <= maxChordSquared);
+    }
+
+    /**
+     * @param minLongitude the western edge; a box crossing the antimeridian has a western edge greater than its eastern edge
+     * @return the ids of the tenant's contacts in the box, nearest to its centre first
+     * @throws IllegalArgumentException if a corner or the limit is out of range
+     */
+    public List<Long> findWithinBox(String tenantId, double minLatitude, double minLongitude,
+                                    double maxLatitude, double maxLongitude, int limit) {
+        checkPoint(minLatitude, minLongitude);
+        checkPoint(maxLatitude, maxLongitude);
+        if (minLatitude > maxLatitude) {
+            throw new IllegalArgumentException("The southern edge must not be north of the northern edge");
+        }
+        checkLimit(limit);
+
+        double width = maxLongitude >= minLongitude ? maxLongitude - minLongitude : maxLongitude - minLongitude + 360;
+        int firstColumn = column(minLongitude);
+        int columnCount = width >= 360 ? COLUMNS : Math.floorMod(column(maxLongitude) - firstColumn, COLUMNS) + 1;
+
+        return search(tenantId, row(minLatitude), row(maxLatitude), firstColumn, columnCount,
+                (minLatitude + maxLatitude) / 2, minLongitude + width / 2, limit,
+                (lat, lon, chordSquared) -> lat >= minLatitude && lat <= maxLatitude && ((lon - minLongitude) % 360 + 360) % 360 <= width);
+    }
+
+    private List<Long> search(String tenantId, int firstRow, int lastRow, int firstColumn, int columnCount,
+                              double latitude, double longitude, int limit, PointFilter filter) {
+        NearestHeap nearest = new NearestHeap(limit);
+        float[] centre = unitVector(latitude, longitude);
+        lock.readLock().lock();
+        try {
+            Map<Integer, Cell> grid = grids.get(tenantId);
+            if (grid == null) {
+                return Collections.emptyList();
+            }
+            long areaCells = (long) (lastRow - firstRow + 1) * columnCount;
+            if (areaCells > grid.size()) {
+                for (Map.Entry<Integer, Cell> entry : grid.entrySet()) {
+                    int row = entry.getKey() / COLUMNS;
+                    int column = entry.getKey() % COLUMNS;
+                    if (row >= firstRow && row <= lastRow && Math.floorMod(column - firstColumn, COLUMNS) < columnCount) {
+                        entry.getValue().collect(filter, centre, nearest);
+                    }
+                }
+            } else {
+                searchOutwards(grid, firstRow, lastRow, firstColumn, columnCount, row(latitude),
+                        Math.floorMod(column(longitude) - firstColumn, COLUMNS), filter, centre, nearest);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return nearest.idsNearestFirst();
+    }
+
+    /**
+     * Visits the area in rings of cells around the centre cell and stops once the heap is full and no point of
+     * the next ring can be nearer than its farthest id, so a large area costs little more than a small one.
+     * A point in ring k lies at least k - 1 whole cells away in latitude or in longitude, which bounds its chord
+     * from below: sin(dLatitude / 2) for latitude, cos(widest latitude) * sin(dLongitude / 2) for longitude.
+     */
+    private static void searchOutwards(Map<Integer, Cell> grid, int firstRow, int lastRow, int firstColumn, int columnCount,
+                                       int centreRow, int centreOffset, PointFilter filter, float[] centre, NearestHeap nearest) {
+        double widestLatitude = Math.max(Math.abs(-90 + firstRow * CELL_HEIGHT), Math.abs(-90 + (lastRow + 1) * CELL_HEIGHT));
+        double cosWidest = Math.cos(Math.toRadians(Math.min(90, widestLatitude)));
+        // Offsets do not wrap, so only an area narrower than the globe keeps the longitude bound
+        boolean boundLongitude = columnCount < COLUMNS;
+        int lastRing = Math.max(Math.max(centreRow - firstRow, lastRow - centreRow), Math.max(centreOffset, columnCount - 1 - centreOffset));
+        for (int ring = 0; ring <= lastRing; ring++) {
+            if (ring > 1 && nearest.isFull()) {
+                double latitudeBound = Math.sin(Math.toRadians((ring - 1) * CELL_HEIGHT) / 2);
+                double longitudeBound = 0;
+                if (boundLongitude) {
+                    double degrees = Math.min((ring - 1) * CELL_WIDTH, 360 - (ring + 1) * CELL_WIDTH);
+                    longitudeBound = cosWidest * Math.sin(Math.toRadians(Math.max(0, degrees)) / 2);
+                }
+                double bound = 2 * Math.min(latitudeBound, longitudeBound);
+                if (bound * bound > nearest.farthest()) {
+                    return;
+                }
+            }
+            for (int row = Math.max(firstRow, centreRow - ring); row <= Math.min(lastRow, centreRow + ring); row++) {
+                boolean edgeRow = Math.abs(row - centreRow) == ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int offset = centreOffset - ring; offset <= centreOffset + ring; offset += Math.max(1, step)) {
+                    if (offset >= 0 && offset < columnCount) {
+                        Cell cell = grid.get(row * COLUMNS + (firstColumn + offset) % COLUMNS);
+                        if (cell != null) {
+                            cell.collect(filter, centre, nearest);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void place(long id, String tenantId, double latitude, double longitude) {
+        int key = row(latitude) * COLUMNS + column(longitude);
+        grids.computeIfAbsent(tenantId, t -> new HashMap<>()).computeIfAbsent(key, k -> new Cell()).add(id, latitude, longitude);
+        placements.put(id, new Placement(tenantId, key));
+    }
+
+    private void unplace(Placement placement, long id) {
+        if (placement == null) {
+            return;
+        }
+        Map<Integer, Cell> grid = grids.get(placement.tenantId);
+        Cell cell = grid.get(placement.cell);
+        cell.remove(id);
+        if (cell.size == 0) {
+            grid.remove(placement.cell);
+            if (grid.isEmpty()) {
+                grids.remove(placement.tenantId);
+            }
+        }
+    }
+
+    private static int row(double latitude) {
+        return Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_HEIGHT));
+    }
+
+    private static int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_WIDTH), COLUMNS);
+    }
+
+    static float[] unitVector(double latitude, double longitude) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        return new float[]{(float) (Math.cos(phi) * Math.cos(lambda)), (float) (Math.cos(phi) * Math.sin(lambda)), (float) Math.sin(phi)};
+    }
+
+    private static void checkPoint(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Latitude must be within -90..90 and longitude within -180..180");
+        }
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    private interface PointFilter {
+
+        boolean test(float latitude, float longitude, double chordSquared);
+    }
+
+    private static final class Placement {
+
+        private final String tenantId;
+
+        private final int cell;
+
+        Placement(String tenantId, int cell) {
+            this.tenantId = tenantId;
+            this.cell = cell;
+        }
+    }
+
+    private static final class Cell {
+
+        private long[] ids = new long[4];
+
+        private float[] latitudes = new float[4];
+
+        private float[] longitudes = new float[4];
+
+        // Unit vector of each point
+        private float[] xs = new float[4];
+
+        private float[] ys = new float[4];
+
+        private float[] zs = new float[4];
+
+        private int size;
+
+        void add(long id, double latitude, double longitude) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                zs = Arrays.copyOf(zs, capacity);
+            }
+            float[] vector = unitVector(latitude, longitude);
+            ids[size] = id;
+            latitudes[size] = (float) latitude;
+            longitudes[size] = (float) longitude;
+            xs[size] = vector[0];
+            ys[size] = vector[1];
+            zs[size] = vector[2];
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    latitudes[i] = latitudes[size];
+                    longitudes[i] = longitudes[size];
+                    xs[i] = xs[size];
+                    ys[i] = ys[size];
+                    zs[i] = zs[size];
+                    return;
+                }
+            }
+        }
+
+        void collect(PointFilter filter, float[] centre, NearestHeap nearest) {
+            for (int i = 0; i < size; i++) {
+                double dx = xs[i] - centre[0];
+                double dy = ys[i] - centre[1];
+                double dz = zs[i] - centre[2];
+                double chordSquared = dx * dx + dy * dy + dz * dz;
+                if (filter.test(latitudes[i], longitudes[i], chordSquared)) {
+                    nearest.offer(ids[i], chordSquared);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the k nearest ids seen, as a max-heap on squared chord so the farthest kept id is replaced first.
+     */
+    private static final class NearestHeap {
+
+        private final long[] ids;
+
+        private final double[] distances;
+
+        private int size;
+
+        NearestHeap(int capacity) {
+            ids = new long[capacity];
+            distances = new double[capacity];
+        }
+
+        void offer(long id, double distance) {
+            if (size < ids.length) {
+                ids[size] = id;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                ids[0] = id;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        double farthest() {
+            return distances[0];
+        }
+
+        List<Long> idsNearestFirst() {
+            List<Long> result = new ArrayList<>(size);
+            while (size > 0) {
+                result.add(ids[0]);
+                size--;
+                swap(0, size);
+                siftDown(0);
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0 && distances[(i - 1) / 2] < distances[i]) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            double distance = distances[i];
+            distances[i] = distances[j];
+            distances[j] = distance;
+        }
+    }
+}
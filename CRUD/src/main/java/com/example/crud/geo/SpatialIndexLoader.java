@@ -0,0 +1,53 @@
+package com.example.crud.geo;
+
+import com.example.crud.repository.ContactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the {@link SpatialIndex} from the database at startup, walking the geocoded contacts in id order,
+ * a page of coordinates at a time, so no Contact entities are loaded.
+ */
+@Component
+public class SpatialIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SpatialIndexLoader.class);
+
+    private static final int PAGE_SIZE = 10_000;
+
+    private final ContactRepository contactRepository;
+
+    private final SpatialIndex spatialIndex;
+
+    public SpatialIndexLoader(ContactRepository contactRepository, SpatialIndex spatialIndex) {
+        this.contactRepository = contactRepository;
+        this.spatialIndex = spatialIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        long lastId = 0;
+        long loaded = 0;
+        while (true) {
+            List<Object[]> page = contactRepository.findCoordinatesAfter(lastId, PageRequest.of(0, PAGE_SIZE));
+            for (Object[] row : page) {
+                lastId = (Long) row[0];
+                spatialIndex.putIfAbsent(lastId, (String) row[1], (Double) row[2], (Double) row[3]);
+            }
+            loaded += page.size();
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+        log.info("Loaded {} geocoded contacts into the spatial index in {} ms", loaded,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.crud.job;
+
+import com.example.crud.model.Contact;
+import com.example.crud.tenant.TenantContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves contacts saved before tenants existed, which have no tenantId, into the default tenant's list.
+ * {@link com.example.crud.tenant.DefaultTenantBackfill} already does this at startup; the job catches rows
+ * written without a tenant while the application runs, e.g. by a bulk SQL import.
+ */
+@Component
+public class AssignDefaultTenantJob implements ContactJob {
+
+    @Override
+    public String getName() {
+        return "assign-default-tenant";
+    }
+
+    @Override
+    public int process(List<Contact> chunk) {
+        int changed = 0;
+        for (Contact contact : chunk) {
+            if (contact.getTenantId() == null) {
+                contact.setTenantId(TenantContext.DEFAULT_TENANT);
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
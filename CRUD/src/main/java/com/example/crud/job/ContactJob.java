@@ -0,0 +1,29 @@
+package com.example.crud.job;
+
+import com.example.crud.model.Contact;
+
+import java.util.List;
+
+/**
+ * A background job that visits every contact, a chunk at a time, to backfill or migrate derived data.
+ *
+ * Chunks run concurrently and a chunk may be processed again after a crash or a failure, so
+ * {@link #process(List)} must be idempotent and must not depend on the order of chunks.
+ */
+public interface ContactJob {
+
+    /**
+     * @return the unique name the job is started and checkpointed under, e.g. "normalize-phone"
+     */
+    String getName();
+
+    /**
+     * Processes one chunk of contacts inside a transaction. Changes to the given managed contacts are
+     * flushed when the chunk's transaction commits, or rolled back and the chunk processed again from
+     * fresh rows if one of its contacts was saved concurrently.
+     *
+     * @param chunk contacts in id order
+     * @return the number of contacts the job changed
+     */
+    int process(List<Contact> chunk);
+}
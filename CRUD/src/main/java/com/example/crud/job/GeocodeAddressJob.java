@@ -0,0 +1,37 @@
+package com.example.crud.job;
+
+import com.example.crud.geo.AddressGeocoder;
+import com.example.crud.model.Contact;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills in the structured address and coordinates of contacts saved before geocoding existed,
+ * or re-geocodes every contact after the gazetteer file has been replaced.
+ */
+@Component
+public class GeocodeAddressJob implements ContactJob {
+
+    private final AddressGeocoder geocoder;
+
+    public GeocodeAddressJob(AddressGeocoder geocoder) {
+        this.geocoder = geocoder;
+    }
+
+    @Override
+    public String getName() {
+        return "geocode-address";
+    }
+
+    @Override
+    public int process(List<Contact> chunk) {
+        int changed = 0;
+        for (Contact contact : chunk) {
+            if (geocoder.geocode(contact)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.crud.job;
+
+import com.example.crud.model.JobCheckpoint;
+import com.example.crud.repository.ContactRepository;
+import com.example.crud.repository.JobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs {@link ContactJob}s over the contacts table while the application keeps serving requests.
+ *
+ * A dispatcher thread walks the table in id order (keyset pagination) and cuts it into chunks, which a small,
+ * fixed pool of workers processes in their own transactions. The number of chunks in flight and the rate they
+ * are started at are both bounded, so a job never takes more than its share of the connection pool. After each
+ * chunk the job's checkpoint advances to the highest id below which every chunk has finished, and jobs that were
+ * running when the application stopped resume from there on the next start.
+ *
+ * Contacts are versioned, so a chunk that read a contact the API saved again before the chunk committed is rolled
+ * back instead of overwriting that save, and is processed again from fresh rows.
+ */
+@Service
+public class JobRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JobRunner.class);
+
+    static final String STATE_RUNNING = "RUNNING";
+    static final String STATE_PAUSED = "PAUSED";
+    static final String STATE_COMPLETED = "COMPLETED";
+    static final String STATE_FAILED = "FAILED";
+
+    // Attempts of a chunk that keeps conflicting with concurrent saves before the job fails; a resume retries it
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private final Map<String, ContactJob> jobs = new LinkedHashMap<>();
+
+    private final ContactRepository contactRepository;
+
+    private final JobCheckpointRepository checkpointRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final int maxChunksInFlight;
+
+    private final long minNanosBetweenChunks;
+
+    private final ExecutorService workers;
+
+    private final ExecutorService dispatchers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "job-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Execution> executions = new ConcurrentHashMap<>();
+
+    private volatile boolean shuttingDown;
+
+    public JobRunner(List<ContactJob> contactJobs,
+                     ContactRepository contactRepository,
+                     JobCheckpointRepository checkpointRepository,
+                     TransactionTemplate transactionTemplate,
+                     @Value("${crud.jobs.chunk-size:500}") int chunkSize,
+                     @Value("${crud.jobs.workers:2}") int workerCount,
+                     @Value("${crud.jobs.max-chunks-per-second:0}") double maxChunksPerSecond) {
+        for (ContactJob job : contactJobs) {
+            jobs.put(job.getName(), job);
+        }
+        this.contactRepository = contactRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = workerCount * 2;
+        this.minNanosBetweenChunks = maxChunksPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxChunksPerSecond) : 0;
+
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "job-worker-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Resumes the jobs that were still running when the application last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (JobCheckpoint checkpoint : checkpointRepository.findByState(STATE_RUNNING)) {
+            if (jobs.containsKey(checkpoint.getName())) {
+                log.info("Resuming job {} after id {}", checkpoint.getName(), checkpoint.getLastId());
+                start(checkpoint.getName(), false);
+            }
+        }
+    }
+
+    /**
+     * Starts a job, or resumes it from its checkpoint.
+     *
+     * @param name the job name
+     * @param restart true to start over from the first contact instead of the checkpoint
+     * @return false if the job is already running
+     * @throws IllegalArgumentException if there is no job with that name
+     */
+    public synchronized boolean start(String name, boolean restart) {
+        ContactJob job = jobs.get(name);
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown job: " + name);
+        }
+        Execution running = executions.get(name);
+        if (running != null && running.isRunning()) {
+            return false;
+        }
+
+        JobCheckpoint checkpoint = checkpointRepository.findById(name).orElseGet(() -> new JobCheckpoint(name));
+        if (restart || STATE_COMPLETED.equals(checkpoint.getState())) {
+            checkpoint = new JobCheckpoint(name);
+        }
+        checkpoint.setState(STATE_RUNNING);
+        Long maxId = contactRepository.findMaxId();
+        checkpoint.setMaxId(maxId != null ? maxId : 0L);
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+
+        Execution execution = new Execution(job, checkpoint);
+        executions.put(name, execution);
+        dispatchers.execute(() -> dispatch(execution));
+        return true;
+    }
+
+    /**
+     * Asks a running job to stop after its chunks in flight. It can be resumed later with {@link #start(String, boolean)}.
+     *
+     * @return false if the job is not running
+     * @throws IllegalArgumentException if there is no job with that name
+     */
+    public boolean stop(String name) {
+        if (!jobs.containsKey(name)) {
+            throw new IllegalArgumentException("Unknown job: " + name);
+        }
+        Execution execution = executions.get(name);
+        if (execution == null || !execution.isRunning()) {
+            return false;
+        }
+        execution.stopRequested = true;
+        return true;
+    }
+
+    /**
+     * @return the progress of every known job, including jobs that have never run
+     */
+    public List<Map<String, Object>> getProgress() {
+        List<Map<String, Object>> progress = new ArrayList<>();
+        for (String name : jobs.keySet()) {
+            Execution execution = executions.get(name);
+            JobCheckpoint checkpoint = execution != null ? execution.snapshot()
+                    : checkpointRepository.findById(name).orElseGet(() -> new JobCheckpoint(name));
+
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("name", name);
+            job.put("state", checkpoint.getState());
+            job.put("lastId", checkpoint.getLastId());
+            job.put("maxId", checkpoint.getMaxId());
+            job.put("percentComplete", percentComplete(checkpoint));
+            job.put("processed", checkpoint.getProcessed());
+            job.put("changed", checkpoint.getChanged());
+            if (execution != null) {
+                double seconds = Math.max(1, execution.elapsedNanos()) / 1e9;
+                job.put("contactsPerSecond", Math.round(execution.processedInRun.get() / seconds));
+                job.put("chunksInFlight", maxChunksInFlight - execution.inFlight.availablePermits());
+                job.put("error", execution.error);
+            }
+            job.put("updatedAt", checkpoint.getUpdatedAt());
+            progress.add(job);
+        }
+        return progress;
+    }
+
+    /**
+     * Estimates progress from the checkpoint alone, so polling the status never queries the contacts table.
+     * Ids are assigned in increasing order, so the share of the id range below the checkpoint follows the share
+     * of contacts done; contacts added after the job started are processed but not counted.
+     */
+    private static long percentComplete(JobCheckpoint checkpoint) {
+        if (STATE_COMPLETED.equals(checkpoint.getState())) {
+            return 100;
+        }
+        Long maxId = checkpoint.getMaxId();
+        if (maxId == null || maxId <= 0) {
+            return 0;
+        }
+        return Math.min(100, checkpoint.getLastId() * 100 / maxId);
+    }
+
+    private void dispatch(Execution execution) {
+        long lastDispatchedId = execution.checkpoint.getLastId();
+        long nextChunkAt = System.nanoTime();
+        try {
+            while (!execution.stopRequested) {
+                List<Long> ids = contactRepository.findIdsAfter(lastDispatchedId, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long fromId = ids.get(0);
+                long toId = ids.get(ids.size() - 1);
+
+                long now = System.nanoTime();
+                if (nextChunkAt > now) {
+                    LockSupport.parkNanos(nextChunkAt - now);
+                }
+                nextChunkAt = Math.max(now, nextChunkAt) + minNanosBetweenChunks;
+
+                execution.inFlight.acquire();
+                execution.chunkStarted(toId);
+                int size = ids.size();
+                workers.execute(() -> processChunk(execution, fromId, toId, size));
+                lastDispatchedId = toId;
+            }
+            // Wait for the chunks still in flight before recording the final state
+            execution.inFlight.acquire(maxChunksInFlight);
+            execution.inFlight.release(maxChunksInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            execution.stopRequested = true;
+        } catch (Exception e) {
+            execution.fail(e);
+        }
+
+        // A job interrupted by a shutdown stays RUNNING, so it resumes on the next start
+        execution.finish(execution.error != null ? STATE_FAILED
+                : shuttingDown ? STATE_RUNNING
+                : execution.stopRequested ? STATE_PAUSED : STATE_COMPLETED);
+        log.info("Job {} finished as {}", execution.job.getName(), execution.snapshot());
+    }
+
+    private void processChunk(Execution execution, long fromId, long toId, int size) {
+        try {
+            if (execution.stopRequested) {
+                // Leave the chunk unprocessed; the checkpoint stays below it and a resume picks it up
+                return;
+            }
+            execution.chunkFinished(toId, processWithRetry(execution, fromId, toId), size);
+        } catch (Exception e) {
+            execution.fail(e);
+        } finally {
+            execution.inFlight.release();
+        }
+    }
+
+    private int processWithRetry(Execution execution, long fromId, long toId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer changed = transactionTemplate.execute(status ->
+                        execution.job.process(contactRepository.findByIdBetweenOrderByIdAsc(fromId, toId)));
+                return changed == null ? 0 : changed;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("Chunk {}-{} of job {} conflicted with a concurrent save, processing it again",
+                        fromId, toId, execution.job.getName());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shuttingDown = true;
+        for (Execution execution : executions.values()) {
+            execution.stopRequested = true;
+        }
+        dispatchers.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * One run of a job: its chunks in flight and the checkpoint they advance.
+     */
+    private final class Execution {
+
+        private final ContactJob job;
+
+        private final JobCheckpoint checkpoint;
+
+        private final Semaphore inFlight = new Semaphore(maxChunksInFlight);
+
+        // Highest id of each started chunk, and whether it has finished
+        private final TreeMap<Long, Boolean> chunks = new TreeMap<>();
+
+        private final AtomicLong processedInRun = new AtomicLong();
+
+        private final long startedNanos = System.nanoTime();
+
+        private volatile long finishedNanos;
+
+        private volatile boolean stopRequested;
+
+        private volatile String error;
+
+        Execution(ContactJob job, JobCheckpoint checkpoint) {
+            this.job = job;
+            this.checkpoint = checkpoint;
+        }
+
+        boolean isRunning() {
+            return finishedNanos == 0;
+        }
+
+        long elapsedNanos() {
+            return (finishedNanos == 0 ? System.nanoTime() : finishedNanos) - startedNanos;
+        }
+
+        synchronized void chunkStarted(long toId) {
+            chunks.put(toId, Boolean.FALSE);
+        }
+
+        synchronized void chunkFinished(long toId, int changed, int size) {
+            chunks.put(toId, Boolean.TRUE);
+            processedInRun.addAndGet(size);
+            checkpoint.setProcessed(checkpoint.getProcessed() + size);
+            checkpoint.setChanged(checkpoint.getChanged() + changed);
+
+            boolean advanced = false;
+            while (!chunks.isEmpty() && chunks.firstEntry().getValue()) {
+                checkpoint.setLastId(chunks.pollFirstEntry().getKey());
+                advanced = true;
+            }
+            if (advanced) {
+                save();
+            }
+        }
+
+        void fail(Exception e) {
+            log.error("Job {} failed", job.getName(), e);
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            stopRequested = true;
+        }
+
+        synchronized void finish(String state) {
+            finishedNanos = System.nanoTime();
+            checkpoint.setState(state);
+            save();
+        }
+
+        synchronized JobCheckpoint snapshot() {
+            JobCheckpoint copy = new JobCheckpoint(checkpoint.getName());
+            copy.setState(checkpoint.getState());
+            copy.setLastId(checkpoint.getLastId());
+            copy.setMaxId(checkpoint.getMaxId());
+            copy.setProcessed(checkpoint.getProcessed());
+            copy.setChanged(checkpoint.getChanged());
+            copy.setUpdatedAt(checkpoint.getUpdatedAt());
+            return copy;
+        }
+
+        private void save() {
+            checkpoint.setUpdatedAt(Instant.now());
+            try {
+                checkpointRepository.save(checkpoint);
+            } catch (Exception e) {
+                // The next chunk saves again; a lost checkpoint only means redoing a few chunks after a crash
+                log.warn("Could not save checkpoint of job {}", job.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.crud.job;
+
+import com.example.crud.model.Contact;
+import com.example.crud.service.ContactNormalizer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Fills in normalizedPhone for contacts saved before the column existed or loaded straight into the database.
+ */
+@Component
+public class NormalizePhoneJob implements ContactJob {
+
+    @Override
+    public String getName() {
+        return "normalize-phone";
+    }
+
+    @Override
+    public int process(List<Contact> chunk) {
+        int changed = 0;
+        for (Contact contact : chunk) {
+            String normalizedPhone = ContactNormalizer.normalizePhone(contact.getPhoneNumber());
+            if (!Objects.equals(normalizedPhone, contact.getNormalizedPhone())) {
+                contact.setNormalizedPhone(normalizedPhone);
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
@@ -1,15 +1,33 @@
 package com.example.crud.model;
 
+import com.example.crud.geo.ContactGeoListener;
+import com.example.crud.service.ContactNormalizer;
+import com.example.crud.tenant.TenantContext;
+
 import javax.persistence.*;
 
 @Entity
-@Table(name = "contacts")
+@Table(name = "contacts", indexes = {
+        @Index(name = "idx_contacts_tenant_phone", columnList = "tenantId, phoneNumber"),
+        @Index(name = "idx_contacts_tenant_name", columnList = "tenantId, lastName, firstName"),
+        @Index(name = "idx_contacts_tenant_first_name", columnList = "tenantId, firstName"),
+        @Index(name = "idx_contacts_tenant_email", columnList = "tenantId, email"),
+        @Index(name = "idx_contacts_tenant_normalized_phone", columnList = "tenantId, normalizedPhone"),
+        @Index(name = "idx_contacts_tenant_city", columnList = "tenantId, city"),
+        @Index(name = "idx_contacts_tenant_postal_code", columnList = "tenantId, postalCode"),
+        @Index(name = "idx_contacts_tenant_geohash", columnList = "tenantId, geohash")
+})
+@EntityListeners(ContactGeoListener.class)
 public class Contact {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
+    // The customer whose contact list this contact belongs to; every API query is scoped to one tenant
+    @Column(name = "tenantId")
+    private String tenantId;
+
     @Column(name = "firstName")
     private String firstName;
 
@@ -25,6 +43,41 @@ public class Contact {
     @Column(name = "address")
     private String address;
 
+    // Digits-only form of phoneNumber, kept in step on every save and backfilled by the normalize-phone job
+    @Column(name = "normalizedPhone")
+    private String normalizedPhone;
+
+    // The address split into its parts and located in the gazetteer on every save, see AddressGeocoder
+    @Column(name = "street")
+    private String street;
+
+    @Column(name = "city")
+    private String city;
+
+    @Column(name = "region")
+    private String region;
+
+    @Column(name = "postalCode")
+    private String postalCode;
+
+    @Column(name = "country")
+    private String country;
+
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Column(name = "geohash")
+    private String geohash;
+
+    // Optimistic lock: a save based on a stale copy of the row fails instead of overwriting a concurrent change.
+    // The default fills in rows inserted by SQL scripts that do not name the column.
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     /*@Column(name = "exist")
     private boolean exist;*/
 
@@ -44,6 +97,17 @@ public class Contact {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public String getFirstName() {
         return firstName;
     }
@@ -79,6 +143,78 @@ public class Contact {
         this.address = address;
     }
 
+    public String getNormalizedPhone() {
+        return normalizedPhone;
+    }
+    public void setNormalizedPhone(String normalizedPhone) {
+        this.normalizedPhone = normalizedPhone;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+    public void setStreet(String street) {
+        this.street = street;
+    }
+
+    public String getCity() {
+        return city;
+    }
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+    public void setPostalCode(String postalCode) {
+        this.postalCode = postalCode;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getGeohash() {
+        return geohash;
+    }
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void prepareForSave() {
+        if (tenantId == null) {
+            this.tenantId = TenantContext.getTenantId();
+        }
+        this.normalizedPhone = ContactNormalizer.normalizePhone(phoneNumber);
+    }
+
     /*public boolean isExist() {
         return exist;
     }
@@ -88,7 +224,7 @@ public class Contact {
 
     @Override
     public String toString() {
-        return "contact [id=" + id + ", firstName=" + firstName + ", lastName=" + lastName + ", phoneNumber=" + phoneNumber + ", email=" + email + ", address=" + address + "]";
+        return "contact [id=" + id + ", tenantId=" + tenantId + ", firstName=" + firstName + ", lastName=" + lastName + ", phoneNumber=" + phoneNumber + ", email=" + email + ", address=" + address + "]";
     }
 
     public void setId(Long contactId) {
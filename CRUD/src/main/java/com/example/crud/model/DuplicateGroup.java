@@ -0,0 +1,53 @@
+package com.example.crud.model;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A proposed merge: contacts that look like the same person, and the contact they would be merged into.
+ */
+public class DuplicateGroup {
+
+    private final String id;
+
+    private final String tenantId;
+
+    private final Long survivorId;
+
+    private final List<Long> duplicateIds;
+
+    private final Set<String> reasons;
+
+    public DuplicateGroup(String tenantId, Long survivorId, List<Long> duplicateIds, Set<String> reasons) {
+        this.id = "g" + survivorId;
+        this.tenantId = tenantId;
+        this.survivorId = survivorId;
+        this.duplicateIds = List.copyOf(duplicateIds);
+        this.reasons = Set.copyOf(reasons);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public Long getSurvivorId() {
+        return survivorId;
+    }
+
+    public List<Long> getDuplicateIds() {
+        return duplicateIds;
+    }
+
+    public Set<String> getReasons() {
+        return reasons;
+    }
+
+    @Override
+    public String toString() {
+        return "duplicateGroup [id=" + id + ", tenantId=" + tenantId + ", survivorId=" + survivorId + ", duplicateIds=" + duplicateIds + ", reasons=" + reasons + "]";
+    }
+}
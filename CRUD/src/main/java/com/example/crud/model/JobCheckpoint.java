@@ -0,0 +1,97 @@
+package com.example.crud.model;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * How far a chunked background job has got. Every contact with an id up to lastId has been processed,
+ * so a job that was stopped or crashed resumes after lastId. maxId is the highest contact id when the job last
+ * started, which progress is measured against.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "state")
+    private String state;
+
+    @Column(name = "lastId")
+    private Long lastId;
+
+    @Column(name = "maxId")
+    private Long maxId;
+
+    @Column(name = "processed")
+    private long processed;
+
+    @Column(name = "changed")
+    private long changed;
+
+    @Column(name = "updatedAt")
+    private Instant updatedAt;
+
+    public JobCheckpoint() {
+
+    }
+
+    public JobCheckpoint(String name) {
+        this.name = name;
+        this.state = "NEW";
+        this.lastId = 0L;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getState() {
+        return state;
+    }
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public Long getMaxId() {
+        return maxId;
+    }
+    public void setMaxId(Long maxId) {
+        this.maxId = maxId;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getChanged() {
+        return changed;
+    }
+    public void setChanged(long changed) {
+        this.changed = changed;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "jobCheckpoint [name=" + name + ", state=" + state + ", lastId=" + lastId + ", maxId=" + maxId + ", processed=" + processed + ", changed=" + changed + "]";
+    }
+}
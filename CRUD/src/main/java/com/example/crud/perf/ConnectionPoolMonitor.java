@@ -0,0 +1,57 @@
+package com.example.crud.perf;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports how busy the Hikari connection pool is. A saturation near 1 with threads waiting means requests
+ * are queuing for connections rather than for the database itself.
+ */
+@Component
+public class ConnectionPoolMonitor {
+
+    private final DataSource dataSource;
+
+    public ConnectionPoolMonitor(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @return active, idle, total and maximum connections, threads waiting for one, and active / maximum as saturation;
+     *         only "available": false if the data source is not a started Hikari pool
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        HikariDataSource hikari = unwrap();
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            metrics.put("available", false);
+            return metrics;
+        }
+
+        int active = pool.getActiveConnections();
+        int max = hikari.getMaximumPoolSize();
+        metrics.put("available", true);
+        metrics.put("active", active);
+        metrics.put("idle", pool.getIdleConnections());
+        metrics.put("total", pool.getTotalConnections());
+        metrics.put("max", max);
+        metrics.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+        metrics.put("saturation", max == 0 ? 0.0 : (double) active / max);
+        return metrics;
+    }
+
+    private HikariDataSource unwrap() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
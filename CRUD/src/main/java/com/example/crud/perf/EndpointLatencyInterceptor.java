@@ -0,0 +1,45 @@
+package com.example.crud.perf;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Times each request from the moment its handler is chosen until the response is written,
+ * and records it under the handler's name, e.g. ContactController.getAllContacts.
+ */
+public class EndpointLatencyInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = EndpointLatencyInterceptor.class.getName() + ".start";
+
+    private final LatencyMonitor latencyMonitor;
+
+    public EndpointLatencyInterceptor(LatencyMonitor latencyMonitor) {
+        this.latencyMonitor = latencyMonitor;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            latencyMonitor.enterEndpoint(name((HandlerMethod) handler));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start instanceof Long && handler instanceof HandlerMethod) {
+            latencyMonitor.exitEndpoint();
+            latencyMonitor.recordEndpoint(name((HandlerMethod) handler), System.nanoTime() - (Long) start,
+                    request.getMethod() + " " + request.getRequestURI() + " -> " + response.getStatus());
+        }
+    }
+
+    private static String name(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+}
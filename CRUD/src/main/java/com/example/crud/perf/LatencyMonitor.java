@@ -0,0 +1,121 @@
+package com.example.crud.perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps rolling latency histograms per ContactController endpoint and per ContactRepository query,
+ * plus the slowest calls of the last hour. Recording never takes a lock, so it is cheap enough for every call.
+ */
+@Component
+public class LatencyMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyMonitor.class);
+
+    static final String ENDPOINT = "endpoint";
+
+    static final String QUERY = "query";
+
+    private static final int SLOWEST_SAMPLES = 20;
+
+    private final Map<String, RollingLatencyHistogram> endpoints = new ConcurrentHashMap<>();
+
+    private final Map<String, RollingLatencyHistogram> queries = new ConcurrentHashMap<>();
+
+    private final SlowestSamples slowest = new SlowestSamples(SLOWEST_SAMPLES, TimeUnit.HOURS.toMillis(1));
+
+    // The endpoint a request thread is serving, so slow query samples say what they were run for
+    private final ThreadLocal<String> currentEndpoint = new ThreadLocal<>();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "latency-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LatencyMonitor() {
+        ticker.scheduleAtFixedRate(this::tick, RollingLatencyHistogram.TICK_SECONDS, RollingLatencyHistogram.TICK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    void enterEndpoint(String name) {
+        currentEndpoint.set(name);
+    }
+
+    void exitEndpoint() {
+        currentEndpoint.remove();
+    }
+
+    /**
+     * @param name the endpoint, e.g. ContactController.getAllContacts
+     * @param nanos how long the request took
+     * @param detail what the request was, e.g. its method and path
+     */
+    public void recordEndpoint(String name, long nanos, String detail) {
+        record(endpoints, ENDPOINT, name, nanos, detail);
+    }
+
+    /**
+     * @param name the query, e.g. ContactRepository.findByTenantId
+     * @param nanos how long the query took, including its transaction
+     */
+    public void recordQuery(String name, long nanos) {
+        String endpoint = currentEndpoint.get();
+        record(queries, QUERY, name, nanos, endpoint != null ? endpoint : Thread.currentThread().getName());
+    }
+
+    private void record(Map<String, RollingLatencyHistogram> series, String type, String name, long nanos, String detail) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        series.computeIfAbsent(name, key -> new RollingLatencyHistogram()).record(micros);
+        slowest.offer(type, name, micros, detail);
+    }
+
+    void tick() {
+        try {
+            endpoints.values().forEach(RollingLatencyHistogram::tick);
+            queries.values().forEach(RollingLatencyHistogram::tick);
+            slowest.expire(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // Keep ticking; an exception would cancel the scheduled task
+            log.warn("Latency tick failed", e);
+        }
+    }
+
+    /**
+     * @return per endpoint and per query: count, throughput and p50/p99/max latency for each window,
+     *         and the slowest calls of the last hour
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("endpoints", getMetrics(endpoints));
+        metrics.put("queries", getMetrics(queries));
+        metrics.put("slowest", slowest.getSamples());
+        return metrics;
+    }
+
+    private static Map<String, Map<String, Object>> getMetrics(Map<String, RollingLatencyHistogram> series) {
+        Map<String, Map<String, Object>> metrics = new TreeMap<>();
+        series.forEach((name, histogram) -> {
+            Map<String, Object> windows = new LinkedHashMap<>();
+            for (RollingLatencyHistogram.Window window : RollingLatencyHistogram.Window.values()) {
+                windows.put(window.getLabel(), histogram.getMetrics(window));
+            }
+            metrics.put(name, windows);
+        });
+        return metrics;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.crud.perf;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class PerfWebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    LatencyMonitor latencyMonitor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EndpointLatencyInterceptor(latencyMonitor)).addPathPatterns("/api/contacts", "/api/contacts/**");
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.crud.perf;
+
+import com.example.crud.repository.ContactRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every ContactRepository call, e.g. ContactRepository.findByTenantId, by adding an interceptor
+ * in front of the Spring Data repository proxy. It sits outermost, so the time includes the query's transaction.
+ */
+@Component
+public class RepositoryLatencyPostProcessor implements BeanPostProcessor {
+
+    // Resolved on first use, so the monitor is not created while post-processors are still being set up
+    private final ObjectProvider<LatencyMonitor> latencyMonitor;
+
+    public RepositoryLatencyPostProcessor(ObjectProvider<LatencyMonitor> latencyMonitor) {
+        this.latencyMonitor = latencyMonitor;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ContactRepository)) {
+            return bean;
+        }
+
+        MethodInterceptor timer = invocation -> {
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                latencyMonitor.getObject().recordQuery("ContactRepository." + invocation.getMethod().getName(), System.nanoTime() - start);
+            }
+        };
+
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, timer);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(timer);
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.crud.perf;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.IntCountsHistogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram of the last 1 minute, 5 minutes and 1 hour, in microseconds.
+ *
+ * Recording is wait-free: callers only write into an HdrHistogram {@link Recorder}. Every {@link #TICK_SECONDS}
+ * seconds {@link #tick()} moves what was recorded into a ring of 10-second slots covering 5 minutes, and every
+ * 5 minutes merges those into a ring of 5-minute slots covering the hour. Windows are therefore up to one tick
+ * behind, and the hour window is made of the 10-second slots since the last 5-minute boundary plus as many
+ * 5-minute slots as fit in the rest of the hour.
+ */
+public class RollingLatencyHistogram {
+
+    public enum Window {
+        ONE_MINUTE("1m", 6), FIVE_MINUTES("5m", 30), ONE_HOUR("1h", 360);
+
+        private final String label;
+
+        private final int ticks;
+
+        Window(String label, int ticks) {
+            this.label = label;
+            this.ticks = ticks;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public static final long TICK_SECONDS = 10;
+
+    // Anything slower than a minute is recorded as a minute
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    // Two significant digits keep a slot around 10 KB while percentiles stay within 1%
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final int FINE_SLOTS = 30;
+
+    private static final int COARSE_SLOTS = 12;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    // Slots without samples stay null, so idle series cost next to nothing
+    private final AbstractHistogram[] fine = new AbstractHistogram[FINE_SLOTS];
+
+    private final AbstractHistogram[] coarse = new AbstractHistogram[COARSE_SLOTS];
+
+    private Histogram recycled;
+
+    private long ticks;
+
+    /**
+     * Records one latency. Safe to call from any thread, and never blocks.
+     */
+    public void record(long micros) {
+        recorder.recordValue(Math.max(0, Math.min(micros, HIGHEST_TRACKABLE_MICROS)));
+    }
+
+    /**
+     * Closes the current 10-second slot.
+     */
+    public synchronized void tick() {
+        Histogram interval = recorder.getIntervalHistogram(recycled);
+        fine[(int) (ticks % FINE_SLOTS)] = interval.getTotalCount() == 0 ? null : copy(interval);
+        recycled = interval;
+        ticks++;
+
+        if (ticks % FINE_SLOTS == 0) {
+            AbstractHistogram merged = null;
+            for (AbstractHistogram slot : fine) {
+                if (slot == null) {
+                    continue;
+                }
+                if (merged == null) {
+                    merged = copy(slot);
+                } else {
+                    merged.add(slot);
+                }
+            }
+            coarse[(int) ((ticks / FINE_SLOTS - 1) % COARSE_SLOTS)] = merged;
+        }
+    }
+
+    /**
+     * @return count, throughput and p50/p99/max latency in milliseconds over the window,
+     *         and the seconds the window actually covers, which is less until the application has run that long
+     */
+    public synchronized Map<String, Object> getMetrics(Window window) {
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        long coveredTicks;
+        if (window.ticks <= FINE_SLOTS) {
+            int slots = (int) Math.min(window.ticks, ticks);
+            addFine(total, slots);
+            coveredTicks = slots;
+        } else {
+            int fineSinceBoundary = (int) (ticks % FINE_SLOTS);
+            addFine(total, fineSinceBoundary);
+            long completed = ticks / FINE_SLOTS;
+            int coarseSlots = (int) Math.min(COARSE_SLOTS - (fineSinceBoundary == 0 ? 0 : 1), completed);
+            for (int i = 1; i <= coarseSlots; i++) {
+                add(total, coarse[(int) ((completed - i) % COARSE_SLOTS)]);
+            }
+            coveredTicks = fineSinceBoundary + (long) coarseSlots * FINE_SLOTS;
+        }
+
+        long seconds = coveredTicks * TICK_SECONDS;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("count", total.getTotalCount());
+        metrics.put("throughputPerSecond", seconds == 0 ? 0.0 : (double) total.getTotalCount() / seconds);
+        metrics.put("p50Ms", millis(total.getValueAtPercentile(50)));
+        metrics.put("p99Ms", millis(total.getValueAtPercentile(99)));
+        metrics.put("maxMs", millis(total.getMaxValue()));
+        metrics.put("windowSeconds", seconds);
+        return metrics;
+    }
+
+    private void addFine(Histogram total, int slots) {
+        for (int i = 1; i <= slots; i++) {
+            add(total, fine[(int) ((ticks - i) % FINE_SLOTS)]);
+        }
+    }
+
+    private static void add(Histogram total, AbstractHistogram slot) {
+        if (slot != null) {
+            total.add(slot);
+        }
+    }
+
+    private static AbstractHistogram copy(AbstractHistogram source) {
+        IntCountsHistogram copy = new IntCountsHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        copy.add(source);
+        return copy;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.crud.perf;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The slowest calls of the last hour, with what they were doing.
+ *
+ * Only a call slower than the fastest sample kept gets past a volatile read, so the lock is taken
+ * a handful of times per hour rather than on every call.
+ */
+class SlowestSamples {
+
+    private final int capacity;
+
+    private final long maxAgeMillis;
+
+    // Fastest kept sample first, so it is the one dropped when a slower call arrives
+    private final PriorityQueue<Sample> samples = new PriorityQueue<>(Comparator.comparingLong(sample -> sample.micros));
+
+    private volatile long admissionMicros = -1;
+
+    SlowestSamples(int capacity, long maxAgeMillis) {
+        this.capacity = capacity;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    void offer(String type, String name, long micros, String detail) {
+        if (micros <= admissionMicros) {
+            return;
+        }
+        synchronized (this) {
+            samples.add(new Sample(type, name, micros, detail, System.currentTimeMillis()));
+            if (samples.size() > capacity) {
+                samples.poll();
+            }
+            updateAdmission();
+        }
+    }
+
+    /**
+     * Drops samples older than the maximum age, so a slow burst an hour ago does not hide the slow calls since.
+     */
+    synchronized void expire(long nowMillis) {
+        if (samples.removeIf(sample -> nowMillis - sample.atMillis > maxAgeMillis)) {
+            updateAdmission();
+        }
+    }
+
+    /**
+     * @return the samples, slowest first
+     */
+    synchronized List<Map<String, Object>> getSamples() {
+        List<Sample> sorted = new ArrayList<>(samples);
+        sorted.sort(Comparator.comparingLong((Sample sample) -> sample.micros).reversed());
+        List<Map<String, Object>> result = new ArrayList<>(sorted.size());
+        for (Sample sample : sorted) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("type", sample.type);
+            entry.put("name", sample.name);
+            entry.put("durationMs", sample.micros / 1000.0);
+            entry.put("at", Instant.ofEpochMilli(sample.atMillis).toString());
+            entry.put("detail", sample.detail);
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private void updateAdmission() {
+        admissionMicros = samples.size() < capacity ? -1 : samples.peek().micros;
+    }
+
+    private static final class Sample {
+
+        private final String type;
+
+        private final String name;
+
+        private final long micros;
+
+        private final String detail;
+
+        private final long atMillis;
+
+        Sample(String type, String name, long micros, String detail, long atMillis) {
+            this.type = type;
+            this.name = name;
+            this.micros = micros;
+            this.detail = detail;
+            this.atMillis = atMillis;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.crud.query;
+
+import com.example.crud.model.Contact;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the filter, sort and limit parameters of GET /api/contacts/query into a {@link QueryPlan}.
+ *
+ * The planner knows the indexes declared on {@link Contact} and picks the one that answers the most filters,
+ * following the usual composite index rule: equality conditions on a leading run of columns, then at most one
+ * prefix or range condition. Filters that no index can answer mean reading every contact of the tenant, which
+ * the plan reports so the caller can reject the query.
+ */
+@Component
+public class ContactQueryPlanner {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    public static final int MAX_LIMIT = 1000;
+
+    static final String PRIMARY_KEY = "PRIMARY_KEY";
+
+    // The tenant is always taken from the request, never from a filter
+    static final Set<String> QUERYABLE_FIELDS = Set.of("id", "firstName", "lastName", "phoneNumber", "email", "address", "normalizedPhone",
+            "street", "city", "region", "postalCode", "country", "geohash");
+
+    private static final String TENANT_COLUMN = "tenantId";
+
+    private final Map<String, List<String>> indexes;
+
+    public ContactQueryPlanner() {
+        this(declaredIndexes());
+    }
+
+    ContactQueryPlanner(Map<String, List<String>> indexes) {
+        this.indexes = indexes;
+    }
+
+    /**
+     * @param filters filter parameters in the form field:operator:value
+     * @param sort sort keys, each a field name optionally prefixed with "-" for descending order
+     * @param limit the maximum number of contacts to return, or null for {@link #DEFAULT_LIMIT}
+     * @throws IllegalArgumentException if a filter, sort key or the limit is invalid
+     */
+    public QueryPlan plan(List<String> filters, List<String> sort, Integer limit) {
+        List<QueryFilter> parsedFilters = new ArrayList<>();
+        for (String filter : filters) {
+            parsedFilters.add(validate(QueryFilter.parse(filter)));
+        }
+
+        List<QuerySort> parsedSort = new ArrayList<>();
+        Set<String> sortFields = new HashSet<>();
+        for (String key : sort) {
+            QuerySort querySort = QuerySort.parse(key);
+            if (!QUERYABLE_FIELDS.contains(querySort.getField())) {
+                throw new IllegalArgumentException("Unknown sort field: " + querySort.getField());
+            }
+            if (!sortFields.add(querySort.getField())) {
+                throw new IllegalArgumentException("Duplicate sort field: " + querySort.getField());
+            }
+            parsedSort.add(querySort);
+        }
+
+        int effectiveLimit = limit == null ? DEFAULT_LIMIT : limit;
+        if (effectiveLimit < 1 || effectiveLimit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        IndexMatch best = null;
+        for (Map.Entry<String, List<String>> index : indexes.entrySet()) {
+            IndexMatch match = match(index.getKey(), index.getValue(), parsedFilters, parsedSort);
+            if (best == null || match.isBetterThan(best)) {
+                best = match;
+            }
+        }
+
+        List<String> warnings = new ArrayList<>();
+        if (best == null || best.matchedFilters.isEmpty()) {
+            if (!parsedFilters.isEmpty()) {
+                warnings.add("No index covers the filters " + parsedFilters + ", every contact of the tenant is read");
+            }
+            // Without usable filters an index still helps if it hands the tenant's contacts over in the requested order
+            boolean sorted = best != null && best.sortedByIndex;
+            if (!sorted && !parsedSort.isEmpty()) {
+                warnings.add("No index delivers the order " + parsedSort + ", the tenant's contacts are sorted before the limit is applied");
+            }
+            return new QueryPlan(parsedFilters, parsedSort, effectiveLimit, QueryPlan.TENANT_SCAN,
+                    sorted ? best.index : null, sorted ? best.columns : List.of(), List.of(), parsedFilters, sorted, warnings);
+        }
+
+        List<QueryFilter> residual = new ArrayList<>(parsedFilters);
+        residual.removeAll(best.matchedFilters);
+        if (!best.sortedByIndex && !parsedSort.isEmpty()) {
+            warnings.add("Index " + best.index + " does not deliver the order " + parsedSort + ", matching contacts are sorted before the limit is applied");
+        }
+        return new QueryPlan(parsedFilters, parsedSort, effectiveLimit, best.range ? QueryPlan.INDEX_RANGE : QueryPlan.INDEX_SEEK,
+                best.index, best.columns, best.matchedColumns, residual, best.sortedByIndex, warnings);
+    }
+
+    private static QueryFilter validate(QueryFilter filter) {
+        if (!QUERYABLE_FIELDS.contains(filter.getField())) {
+            throw new IllegalArgumentException("Unknown filter field: " + filter.getField());
+        }
+        if ("id".equals(filter.getField())) {
+            if (filter.getOperator() == QueryFilter.Operator.PREFIX) {
+                throw new IllegalArgumentException("id does not support prefix filters");
+            }
+            try {
+                Long.parseLong(filter.getValue());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("id filter value is not a number: " + filter.getValue());
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Matches the filters against one index: equality filters on a leading run of its columns, then the
+     * prefix or range filters on the next column. A leading tenantId column is always matched, since every
+     * query is scoped to one tenant.
+     */
+    private static IndexMatch match(String index, List<String> columns, List<QueryFilter> filters, List<QuerySort> sort) {
+        IndexMatch match = new IndexMatch(index, columns);
+        int position = 0;
+        for (; position < columns.size(); position++) {
+            String column = columns.get(position);
+            if (position == 0 && TENANT_COLUMN.equals(column)) {
+                match.matchedColumns.add(column);
+                continue;
+            }
+            List<QueryFilter> equal = filtersOn(filters, column, false);
+            if (!equal.isEmpty()) {
+                match.matchedColumns.add(column);
+                match.matchedFilters.addAll(equal);
+                continue;
+            }
+            List<QueryFilter> range = filtersOn(filters, column, true);
+            if (!range.isEmpty()) {
+                match.matchedColumns.add(column);
+                match.matchedFilters.addAll(range);
+                match.range = true;
+            }
+            break;
+        }
+        match.sortedByIndex = deliversOrder(columns, position, filters, sort);
+        return match;
+    }
+
+    private static List<QueryFilter> filtersOn(List<QueryFilter> filters, String column, boolean range) {
+        return filters.stream()
+                .filter(filter -> filter.getField().equals(column) && filter.getOperator().isRange() == range)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The index delivers the requested order if, once the sort keys pinned by equality filters are dropped,
+     * the remaining keys run in one direction along the index columns that follow its equality-matched columns.
+     * Secondary index entries end with the primary key, so id can always follow the declared columns.
+     */
+    private static boolean deliversOrder(List<String> columns, int equalityColumns, List<QueryFilter> filters, List<QuerySort> sort) {
+        List<QuerySort> keys = sort.stream()
+                .filter(key -> filtersOn(filters, key.getField(), false).isEmpty())
+                .collect(Collectors.toList());
+        if (keys.isEmpty()) {
+            return true;
+        }
+        List<String> ordered = new ArrayList<>(columns.subList(Math.min(equalityColumns, columns.size()), columns.size()));
+        if (!columns.contains("id")) {
+            ordered.add("id");
+        }
+        if (keys.size() > ordered.size()) {
+            return false;
+        }
+        boolean ascending = keys.get(0).isAscending();
+        for (int i = 0; i < keys.size(); i++) {
+            if (!keys.get(i).getField().equals(ordered.get(i)) || keys.get(i).isAscending() != ascending) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the indexes declared on the Contact entity, plus its primary key, in declaration order.
+     */
+    static Map<String, List<String>> declaredIndexes() {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        indexes.put(PRIMARY_KEY, List.of("id"));
+        Table table = Contact.class.getAnnotation(Table.class);
+        if (table != null) {
+            for (Index index : table.indexes()) {
+                indexes.put(index.name(), Arrays.stream(index.columnList().split(","))
+                        .map(String::trim)
+                        .collect(Collectors.toUnmodifiableList()));
+            }
+        }
+        return Collections.unmodifiableMap(indexes);
+    }
+
+    private static class IndexMatch {
+
+        private final String index;
+
+        private final List<String> columns;
+
+        private final List<String> matchedColumns = new ArrayList<>();
+
+        private final List<QueryFilter> matchedFilters = new ArrayList<>();
+
+        private boolean range;
+
+        private boolean sortedByIndex;
+
+        IndexMatch(String index, List<String> columns) {
+            this.index = index;
+            this.columns = columns;
+        }
+
+        // More answered filters first, then an index that also delivers the order, then seeks over ranges
+        boolean isBetterThan(IndexMatch other) {
+            if (matchedFilters.size() != other.matchedFilters.size()) {
+                return matchedFilters.size() > other.matchedFilters.size();
+            }
+            if (sortedByIndex != other.sortedByIndex) {
+                return sortedByIndex;
+            }
+            return !range && other.range;
+        }
+    }
+}
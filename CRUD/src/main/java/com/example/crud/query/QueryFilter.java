@@ -0,0 +1,62 @@
+package com.example.crud.query;
+
+import java.util.Locale;
+
+/**
+ * One condition of a contact query, e.g. lastName prefix "Wa".
+ */
+public class QueryFilter {
+
+    public enum Operator {
+        EQ, PREFIX, GT, GTE, LT, LTE;
+
+        boolean isRange() {
+            return this != EQ;
+        }
+    }
+
+    private final String field;
+
+    private final Operator operator;
+
+    private final String value;
+
+    public QueryFilter(String field, Operator operator, String value) {
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+    }
+
+    /**
+     * @param filter a filter request parameter in the form field:operator:value, e.g. "lastName:prefix:Wa"
+     * @throws IllegalArgumentException if the filter is malformed or the operator is unknown
+     */
+    public static QueryFilter parse(String filter) {
+        String[] parts = filter.split(":", 3);
+        if (parts.length != 3 || parts[0].isEmpty()) {
+            throw new IllegalArgumentException("Expected field:operator:value but got: " + filter);
+        }
+        try {
+            return new QueryFilter(parts[0], Operator.valueOf(parts[1].toUpperCase(Locale.ROOT)), parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operator: " + parts[1]);
+        }
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return field + ":" + operator.name().toLowerCase(Locale.ROOT) + ":" + value;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.crud.query;
+
+import java.util.List;
+
+/**
+ * How a contact query will run: the index it reads, which of its filters the index answers, and whether
+ * the index also delivers the requested order. Returned as is by the explain mode of GET /api/contacts/query.
+ */
+public class QueryPlan {
+
+    /** Every filter is answered by equality lookups on the index */
+    public static final String INDEX_SEEK = "INDEX_SEEK";
+
+    /** The index is read over a range: equality lookups followed by one prefix or range condition */
+    public static final String INDEX_RANGE = "INDEX_RANGE";
+
+    /** No index matches the filters beyond the tenant, so every contact of the tenant is read */
+    public static final String TENANT_SCAN = "TENANT_SCAN";
+
+    private final List<QueryFilter> filters;
+
+    private final List<QuerySort> sort;
+
+    private final int limit;
+
+    private final String access;
+
+    private final String index;
+
+    private final List<String> indexColumns;
+
+    private final List<String> matchedColumns;
+
+    private final List<QueryFilter> residualFilters;
+
+    private final boolean sortedByIndex;
+
+    private final List<String> warnings;
+
+    public QueryPlan(List<QueryFilter> filters, List<QuerySort> sort, int limit, String access, String index,
+                     List<String> indexColumns, List<String> matchedColumns, List<QueryFilter> residualFilters,
+                     boolean sortedByIndex, List<String> warnings) {
+        this.filters = List.copyOf(filters);
+        this.sort = List.copyOf(sort);
+        this.limit = limit;
+        this.access = access;
+        this.index = index;
+        this.indexColumns = List.copyOf(indexColumns);
+        this.matchedColumns = List.copyOf(matchedColumns);
+        this.residualFilters = List.copyOf(residualFilters);
+        this.sortedByIndex = sortedByIndex;
+        this.warnings = List.copyOf(warnings);
+    }
+
+    public List<QueryFilter> getFilters() {
+        return filters;
+    }
+
+    public List<QuerySort> getSort() {
+        return sort;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public String getAccess() {
+        return access;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    public List<String> getIndexColumns() {
+        return indexColumns;
+    }
+
+    public List<String> getMatchedColumns() {
+        return matchedColumns;
+    }
+
+    public List<QueryFilter> getResidualFilters() {
+        return residualFilters;
+    }
+
+    public boolean isSortedByIndex() {
+        return sortedByIndex;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * @return true if the filters could not use an index, so the query reads every contact of the tenant
+     */
+    public boolean isScan() {
+        return TENANT_SCAN.equals(access) && !filters.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "queryPlan [access=" + access + ", index=" + index + ", matchedColumns=" + matchedColumns
+                + ", residualFilters=" + residualFilters + ", sortedByIndex=" + sortedByIndex + ", limit=" + limit + "]";
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.crud.query;
+
+/**
+ * One sort key of a contact query.
+ */
+public class QuerySort {
+
+    private final String field;
+
+    private final boolean ascending;
+
+    public QuerySort(String field, boolean ascending) {
+        this.field = field;
+        this.ascending = ascending;
+    }
+
+    /**
+     * @param sort a field name, prefixed with "-" for descending order, e.g. "-lastName"
+     */
+    public static QuerySort parse(String sort) {
+        return sort.startsWith("-") ? new QuerySort(sort.substring(1), false) : new QuerySort(sort, true);
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Override
+    public String toString() {
+        return ascending ? field : "-" + field;
+    }
+}
@@ -1,14 +1,113 @@
 package com.example.crud.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import com.example.crud.model.Contact;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
 
 @Repository
-public interface ContactRepository extends JpaRepository<Contact, Long> {
+public interface ContactRepository extends JpaRepository<Contact, Long>, ContactRepositoryCustom {
     /*List<Contact> findByExist(boolean exist);*/
-    List<Contact> findByFirstName(String firstName);
-    List<Contact> findByPhoneNumberContaining(String phoneNumber);
-}
\ No newline at end of file
+    // Tenant-scoped queries used by the API; each one only reads the tenantId prefix of its index
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    List<Contact> findByTenantId(String tenantId);
+
+    // Not read-only: updateContact modifies and saves the contact it returns
+    Optional<Contact> findByTenantIdAndId(String tenantId, Long id);
+
+    // Read-only twin of findByTenantIdAndId for getContactById, whose result is shared between coalesced requests
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    Optional<Contact> readByTenantIdAndId(String tenantId, Long id);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    List<Contact> findByTenantIdAndFirstName(String tenantId, String firstName);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    List<Contact> findByTenantIdAndPhoneNumberContaining(String tenantId, String phoneNumber);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    List<Contact> findByTenantIdAndIdIn(String tenantId, Collection<Long> ids);
+
+    /**
+     * Deletes one contact of a tenant. Contacts are removed one by one so entity lifecycle callbacks still run.
+     *
+     * @return the number of contacts deleted, 0 if the tenant has no contact with that id
+     */
+    @Transactional
+    long deleteByTenantIdAndId(String tenantId, Long id);
+
+    /**
+     * Deletes every contact of a tenant in one statement. Entity lifecycle callbacks do not run, so the caller
+     * removes the tenant from the spatial index itself.
+     *
+     * @return the number of contacts deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Contact c where c.tenantId = :tenantId")
+    int deleteByTenantId(@Param("tenantId") String tenantId);
+
+    /**
+     * Reads the table in id order, one page after the given id. Seeking past the last id of the previous page
+     * stays cheap on large tables, unlike an offset.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    List<Contact> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Reads only the ids of the next page after the given id, which is all a chunked job needs to cut its next chunk.
+     */
+    @Transactional(readOnly = true)
+    @Query("select c.id from Contact c where c.id > :id order by c.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Reads the id, tenant and coordinates of the next page of geocoded contacts after the given id,
+     * which is all the spatial index needs to rebuild itself.
+     */
+    @Transactional(readOnly = true)
+    @Query("select c.id, c.tenantId, c.latitude, c.longitude from Contact c"
+            + " where c.id > :id and c.latitude is not null and c.longitude is not null order by c.id")
+    List<Object[]> findCoordinatesAfter(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Moves every contact without a tenant into the given tenant in one statement.
+     *
+     * @return the number of contacts moved
+     */
+    @Transactional
+    @Modifying
+    @Query("update Contact c set c.tenantId = :tenantId where c.tenantId is null")
+    int assignTenantWhereMissing(@Param("tenantId") String tenantId);
+
+    /**
+     * Loads the contacts of one job chunk, the ids from fromId to toId inclusive, as managed entities the job
+     * may modify.
+     */
+    List<Contact> findByIdBetweenOrderByIdAsc(Long fromId, Long toId);
+
+    /**
+     * @return the highest contact id, or null if the table is empty; a job measures its progress against it
+     */
+    @Transactional(readOnly = true)
+    @Query("select max(c.id) from Contact c")
+    Long findMaxId();
+}
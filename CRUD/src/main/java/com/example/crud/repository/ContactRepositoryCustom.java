@@ -0,0 +1,55 @@
+package com.example.crud.repository;
+
+import com.example.crud.model.Contact;
+import com.example.crud.query.QueryPlan;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written queries for {@link ContactRepository} that Spring Data cannot derive from method names.
+ */
+public interface ContactRepositoryCustom {
+
+    /**
+     * Selects only the requested columns of every contact of a tenant, without loading managed Contact entities.
+     *
+     * @param tenantId the tenant whose contacts to select
+     * @param fields the Contact field names to select, in the order they should appear in each row
+     * @return one map per contact, keyed by field name
+     * @throws IllegalArgumentException if a field name is not a Contact field
+     */
+    List<Map<String, Object>> findAllFields(String tenantId, List<String> fields);
+
+    /**
+     * Selects only the requested columns of a tenant's contacts whose phone number contains the given value.
+     *
+     * @param tenantId the tenant whose contacts to select
+     * @param fields the Contact field names to select
+     * @param phoneNumber the phone number fragment to search for
+     * @return one map per matching contact, keyed by field name
+     * @throws IllegalArgumentException if a field name is not a Contact field
+     */
+    List<Map<String, Object>> findFieldsByPhoneNumberContaining(String tenantId, List<String> fields, String phoneNumber);
+
+    /**
+     * Selects only the requested columns of a tenant's contacts with the given first name.
+     *
+     * @param tenantId the tenant whose contacts to select
+     * @param fields the Contact field names to select
+     * @param firstName the first name to match exactly
+     * @return one map per matching contact, keyed by field name
+     * @throws IllegalArgumentException if a field name is not a Contact field
+     */
+    List<Map<String, Object>> findFieldsByFirstName(String tenantId, List<String> fields, String firstName);
+
+    /**
+     * Runs a planned contact query as one parameterized query: all filters ANDed with the tenant,
+     * ordered by the sort keys and then id, and cut off at the plan's limit.
+     *
+     * @param tenantId the tenant whose contacts to query
+     * @param plan the plan built by {@link com.example.crud.query.ContactQueryPlanner}
+     * @return the matching contacts, read-only
+     */
+    List<Contact> findByPlan(String tenantId, QueryPlan plan);
+}
@@ -0,0 +1,156 @@
+package com.example.crud.repository;
+
+import com.example.crud.model.Contact;
+import com.example.crud.query.QueryFilter;
+import com.example.crud.query.QueryPlan;
+import com.example.crud.query.QuerySort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+public class ContactRepositoryCustomImpl implements ContactRepositoryCustom {
+
+    // Field names a client may ask for; anything else is rejected before it reaches the query
+    static final Set<String> SELECTABLE_FIELDS = Set.of("id", "tenantId", "firstName", "lastName", "phoneNumber", "email", "address", "normalizedPhone",
+            "street", "city", "region", "postalCode", "country", "latitude", "longitude", "geohash");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAllFields(String tenantId, List<String> fields) {
+        return selectFields(tenantId, fields, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByPhoneNumberContaining(String tenantId, List<String> fields, String phoneNumber) {
+        return selectFields(tenantId, fields, (cb, root) -> cb.like(root.get("phoneNumber"), "%" + escapeLike(phoneNumber) + "%", '\\'));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByFirstName(String tenantId, List<String> fields, String firstName) {
+        return selectFields(tenantId, fields, (cb, root) -> cb.equal(root.get("firstName"), firstName));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Contact> findByPlan(String tenantId, QueryPlan plan) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Contact> query = cb.createQuery(Contact.class);
+        Root<Contact> root = query.from(Contact.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("tenantId"), tenantId));
+        for (QueryFilter filter : plan.getFilters()) {
+            predicates.add(toPredicate(cb, root, filter));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        // id breaks ties so equal sort keys still come back in a stable order
+        List<Order> orders = new ArrayList<>();
+        boolean sortedById = false;
+        for (QuerySort sort : plan.getSort()) {
+            orders.add(sort.isAscending() ? cb.asc(root.get(sort.getField())) : cb.desc(root.get(sort.getField())));
+            sortedById |= "id".equals(sort.getField());
+        }
+        if (!sortedById) {
+            orders.add(cb.asc(root.get("id")));
+        }
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(plan.getLimit())
+                .setHint(org.hibernate.jpa.QueryHints.HINT_READONLY, true)
+                .getResultList();
+    }
+
+    private static Predicate toPredicate(CriteriaBuilder cb, Root<Contact> root, QueryFilter filter) {
+        if (filter.getOperator() == QueryFilter.Operator.PREFIX) {
+            return cb.like(root.get(filter.getField()), escapeLike(filter.getValue()) + "%", '\\');
+        }
+        if ("id".equals(filter.getField())) {
+            return compare(cb, root.get("id"), filter.getOperator(), Long.valueOf(filter.getValue()));
+        }
+        return compare(cb, root.get(filter.getField()), filter.getOperator(), filter.getValue());
+    }
+
+    private static <T extends Comparable<? super T>> Predicate compare(CriteriaBuilder cb, Expression<T> field,
+                                                                      QueryFilter.Operator operator, T value) {
+        switch (operator) {
+            case EQ:
+                return cb.equal(field, value);
+            case GT:
+                return cb.greaterThan(field, value);
+            case GTE:
+                return cb.greaterThanOrEqualTo(field, value);
+            case LT:
+                return cb.lessThan(field, value);
+            case LTE:
+                return cb.lessThanOrEqualTo(field, value);
+            default:
+                throw new IllegalArgumentException("Unsupported operator: " + operator);
+        }
+    }
+
+    // Prefixes and phone number fragments are matched literally, so LIKE wildcards in them must not widen the match
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Builds a tuple query that selects only the requested columns, so Hibernate neither hydrates
+     * nor snapshots Contact entities for dirty checking.
+     */
+    private List<Map<String, Object>> selectFields(String tenantId, List<String> fields,
+                                                   BiFunction<CriteriaBuilder, Root<Contact>, Predicate> where) {
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be selected");
+        }
+        for (String field : fields) {
+            if (!SELECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown contact field: " + field);
+            }
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Contact> root = query.from(Contact.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        Predicate tenant = cb.equal(root.get("tenantId"), tenantId);
+        query.where(where != null ? cb.and(tenant, where.apply(cb, root)) : tenant);
+
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.crud.repository;
+
+import java.util.List;
+
+import com.example.crud.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+    List<JobCheckpoint> findByState(String state);
+}
@@ -0,0 +1,49 @@
+package com.example.crud.service;
+
+import com.example.crud.model.Contact;
+import com.example.crud.repository.ContactRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The hot ContactRepository reads, with concurrent identical lookups sharing one database call.
+ *
+ * Results are shared between requests, so callers must treat the returned contacts as read-only.
+ */
+@Component
+public class CoalescingContactReader {
+
+    private final ContactRepository contactRepository;
+
+    // Keyed by (tenant, lookup value), so identical lookups of different tenants never share a result
+    private final SingleFlight<Map.Entry<String, Long>, Optional<Contact>> byId = new SingleFlight<>();
+
+    private final SingleFlight<Map.Entry<String, String>, List<Contact>> byFirstName = new SingleFlight<>();
+
+    public CoalescingContactReader(ContactRepository contactRepository) {
+        this.contactRepository = contactRepository;
+    }
+
+    public Optional<Contact> findById(String tenantId, long id) {
+        return byId.execute(Map.entry(tenantId, id), () -> contactRepository.readByTenantIdAndId(tenantId, id));
+    }
+
+    public List<Contact> findByFirstName(String tenantId, String firstName) {
+        return byFirstName.execute(firstName == null ? null : Map.entry(tenantId, firstName),
+                () -> contactRepository.findByTenantIdAndFirstName(tenantId, firstName));
+    }
+
+    /**
+     * @return the coalescing metrics of each lookup
+     */
+    public Map<String, Map<String, Object>> getMetrics() {
+        Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+        metrics.put("findById", byId.getMetrics());
+        metrics.put("findByFirstName", byFirstName.getMetrics());
+        return metrics;
+    }
+}
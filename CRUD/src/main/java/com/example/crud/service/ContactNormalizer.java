@@ -0,0 +1,122 @@
+package com.example.crud.service;
+
+import java.util.Locale;
+
+/**
+ * Canonical forms of contact fields, used to compare contacts that were typed in differently.
+ */
+public final class ContactNormalizer {
+
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    private ContactNormalizer() {
+
+    }
+
+    /**
+     * Keeps only the digits of a phone number and drops a leading North American country code,
+     * so "+1 (555) 555-1234" and "555.555.1234" normalize to the same value.
+     *
+     * @param phoneNumber the phone number as entered
+     * @return the digits of the phone number, or an empty string if there are none
+     */
+    public static String normalizePhone(String phoneNumber) {
+        if (phoneNumber == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() == 11 && digits.charAt(0) == '1') {
+            digits.deleteCharAt(0);
+        }
+        return digits.toString();
+    }
+
+    /**
+     * @param email the email as entered
+     * @return the trimmed, lower-case email, or an empty string if there is none
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param name a first or last name as entered
+     * @return the trimmed, lower-case name, or an empty string if there is none
+     */
+    public static String normalizeName(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Lower-cases an address and reduces it to its letters and digits, one space between words,
+     * so "12 Main St." and "12  main st" normalize to the same value.
+     *
+     * @param address the address as entered
+     * @return the normalized address, or an empty string if there is none
+     */
+    public static String normalizeAddress(String address) {
+        if (address == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(address.length());
+        for (int i = 0; i < address.length(); i++) {
+            char c = Character.toLowerCase(address.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        int end = normalized.length();
+        if (end > 0 && normalized.charAt(end - 1) == ' ') {
+            normalized.setLength(end - 1);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Computes the American Soundex code of a name, so that spelling variants such as "Smith" and "Smyth"
+     * share a code.
+     *
+     * @param name the name to encode
+     * @return the four character Soundex code, or an empty string if the name has no letters
+     */
+    public static String soundex(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder code = new StringBuilder(4);
+        char last = 0;
+        for (int i = 0; i < name.length() && code.length() < 4; i++) {
+            char c = Character.toUpperCase(name.charAt(i));
+            if (c < 'A' || c > 'Z') {
+                continue;
+            }
+            char digit = SOUNDEX_CODES.charAt(c - 'A');
+            if (code.length() == 0) {
+                code.append(c);
+                last = digit;
+            } else if (c == 'H' || c == 'W') {
+                // H and W do not separate letters with the same code
+            } else if (digit == '0') {
+                last = digit;
+            } else if (digit != last) {
+                code.append(digit);
+                last = digit;
+            }
+        }
+        if (code.length() == 0) {
+            return "";
+        }
+        while (code.length() < 4) {
+            code.append('0');
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.crud.service;
+
+import com.example.crud.model.Contact;
+import com.example.crud.model.DuplicateGroup;
+import com.example.crud.repository.ContactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs duplicate detection over the whole contacts table in the background, keeps the proposed merge groups,
+ * and applies the merges a client accepts.
+ *
+ * A scan covers every tenant, but each tenant only sees and merges the groups of its own contacts.
+ */
+@Service
+public class DedupService {
+
+    private static final Logger log = LoggerFactory.getLogger(DedupService.class);
+
+    private final ContactRepository contactRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int pageSize;
+
+    private final int mergeBatchSize;
+
+    private final ForkJoinPool pool;
+
+    private final DuplicateDetector detector;
+
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dedup-scan");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Scans and merges exclude each other: a finishing scan replaces the proposals a merge is working through
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    private final Map<String, DuplicateGroup> proposals = new ConcurrentHashMap<>();
+
+    private volatile String state = "IDLE";
+    private volatile long scannedContacts;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    public DedupService(ContactRepository contactRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${crud.dedup.parallelism:0}") int parallelism,
+                        @Value("${crud.dedup.max-block-size:500}") int maxBlockSize,
+                        @Value("${crud.dedup.page-size:5000}") int pageSize,
+                        @Value("${crud.dedup.merge-batch-size:100}") int mergeBatchSize) {
+        this.contactRepository = contactRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.pageSize = pageSize;
+        this.mergeBatchSize = mergeBatchSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.detector = new DuplicateDetector(pool, maxBlockSize);
+    }
+
+    /**
+     * Starts a scan in the background, replacing the current proposals when it finishes.
+     *
+     * @return false if a scan or a merge is already running
+     */
+    public boolean startScan() {
+        if (!busy.compareAndSet(false, true)) {
+            return false;
+        }
+        state = "RUNNING";
+        scannedContacts = 0;
+        startedAt = Instant.now();
+        finishedAt = null;
+
+        scanExecutor.submit(() -> {
+            try {
+                List<DuplicateGroup> groups = detector.detect(loadCandidates());
+                proposals.clear();
+                for (DuplicateGroup group : groups) {
+                    proposals.put(group.getId(), group);
+                }
+                state = "COMPLETED";
+                log.info("Duplicate scan of {} contacts proposed {} merge groups", scannedContacts, groups.size());
+            } catch (Exception e) {
+                state = "FAILED";
+                log.error("Duplicate scan failed", e);
+            } finally {
+                finishedAt = Instant.now();
+                busy.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * @return the state of the last scan and how far it got, with the number of groups it proposed for the tenant
+     */
+    public Map<String, Object> getStatus(String tenantId) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("scannedContacts", scannedContacts);
+        status.put("proposedGroups", proposals.values().stream().filter(group -> tenantId.equals(group.getTenantId())).count());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        return status;
+    }
+
+    /**
+     * @return the tenant's merge groups proposed by the last scan that have not been merged yet, by survivor id
+     */
+    public List<DuplicateGroup> getProposals(String tenantId) {
+        List<DuplicateGroup> groups = new ArrayList<>();
+        for (DuplicateGroup group : proposals.values()) {
+            if (tenantId.equals(group.getTenantId())) {
+                groups.add(group);
+            }
+        }
+        groups.sort((g1, g2) -> Long.compare(g1.getSurvivorId(), g2.getSurvivorId()));
+        return groups;
+    }
+
+    /**
+     * Merges the given proposed groups, one transaction per batch of groups. Each survivor keeps its own
+     * fields and takes any field it is missing from its duplicates, which are then deleted.
+     *
+     * Contacts may have changed since the scan, so each group is loaded again and only merged if its
+     * contacts still form exactly that group.
+     *
+     * @param tenantId the tenant whose groups are merged; ids of other tenants' groups are ignored
+     * @param groupIds the ids of the proposed groups to merge, or an empty list to merge every proposal of the tenant
+     * @return the number of groups merged; groups that no longer match are dropped
+     * @throws IllegalStateException if a scan or another merge is running
+     */
+    public int merge(String tenantId, Collection<String> groupIds) {
+        if (!busy.compareAndSet(false, true)) {
+            throw new IllegalStateException("A duplicate scan or merge is already running");
+        }
+        try {
+            return mergeGroups(tenantId, groupIds);
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    private int mergeGroups(String tenantId, Collection<String> groupIds) {
+        List<DuplicateGroup> groups = new ArrayList<>();
+        for (String groupId : groupIds.isEmpty() ? new ArrayList<>(proposals.keySet()) : groupIds) {
+            DuplicateGroup group = proposals.get(groupId);
+            if (group != null && tenantId.equals(group.getTenantId())) {
+                groups.add(group);
+            }
+        }
+
+        int merged = 0;
+        for (int from = 0; from < groups.size(); from += mergeBatchSize) {
+            List<DuplicateGroup> batch = groups.subList(from, Math.min(from + mergeBatchSize, groups.size()));
+            Integer mergedInBatch = transactionTemplate.execute(status -> mergeBatch(batch));
+            merged += mergedInBatch == null ? 0 : mergedInBatch;
+            for (DuplicateGroup group : batch) {
+                proposals.remove(group.getId());
+            }
+        }
+        return merged;
+    }
+
+    private int mergeBatch(List<DuplicateGroup> batch) {
+        int merged = 0;
+        for (DuplicateGroup group : batch) {
+            Contact survivor = contactRepository.findByTenantIdAndId(group.getTenantId(), group.getSurvivorId()).orElse(null);
+            if (survivor == null) {
+                continue;
+            }
+            List<Contact> duplicates = new ArrayList<>();
+            for (Long duplicateId : group.getDuplicateIds()) {
+                contactRepository.findByTenantIdAndId(group.getTenantId(), duplicateId).ifPresent(duplicates::add);
+            }
+            if (!stillMatches(survivor, duplicates, group)) {
+                log.info("Skipping merge group {}: its contacts changed since the scan", group.getId());
+                continue;
+            }
+            for (Contact duplicate : duplicates) {
+                if (isBlank(survivor.getEmail())) {
+                    survivor.setEmail(duplicate.getEmail());
+                }
+                if (isBlank(survivor.getAddress())) {
+                    survivor.setAddress(duplicate.getAddress());
+                }
+            }
+            contactRepository.save(survivor);
+            // Removed one by one, not in a bulk delete, so the geo listener drops them from the spatial index
+            contactRepository.deleteAll(duplicates);
+            merged++;
+        }
+        return merged;
+    }
+
+    /**
+     * Runs detection again on the freshly loaded contacts of a group, which must come back as the one same group.
+     */
+    private boolean stillMatches(Contact survivor, List<Contact> duplicates, DuplicateGroup group) {
+        if (duplicates.size() != group.getDuplicateIds().size()) {
+            return false;
+        }
+        List<DuplicateDetector.Candidate> candidates = new ArrayList<>();
+        candidates.add(DuplicateDetector.Candidate.of(survivor));
+        for (Contact duplicate : duplicates) {
+            candidates.add(DuplicateDetector.Candidate.of(duplicate));
+        }
+        List<DuplicateGroup> regrouped = detector.detect(candidates);
+        return regrouped.size() == 1 && regrouped.get(0).getDuplicateIds().size() == duplicates.size();
+    }
+
+    private List<DuplicateDetector.Candidate> loadCandidates() {
+        List<DuplicateDetector.Candidate> candidates = new ArrayList<>();
+        Long lastId = 0L;
+        List<Contact> page;
+        do {
+            page = contactRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, pageSize));
+            for (Contact contact : page) {
+                candidates.add(DuplicateDetector.Candidate.of(contact));
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+            scannedContacts = candidates.size();
+        } while (page.size() == pageSize);
+        return Collections.unmodifiableList(candidates);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scanExecutor.shutdownNow();
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.crud.service;
+
+import com.example.crud.model.Contact;
+import com.example.crud.model.DuplicateGroup;
+import com.example.crud.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds groups of near-duplicate contacts.
+ *
+ * Contacts are only compared with the other contacts of the same tenant that share a blocking key (normalized
+ * phone, lower-case email, or the Soundex codes of their names together with a phone suffix, email user name or
+ * address), so the work grows with the size of the blocks rather than with the square of the table. Blocks are
+ * compared in parallel on a fork/join pool and the matching pairs are joined into groups with a union-find.
+ */
+public class DuplicateDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetector.class);
+
+    static final String REASON_PHONE = "phone";
+    static final String REASON_EMAIL = "email";
+    static final String REASON_NAME = "name";
+
+    // Phone numbers are compared on their subscriber digits, so a missing or different area code still matches
+    private static final int PHONE_SUFFIX_LENGTH = 7;
+
+    // Blocks up to this many comparisons are handled by one fork/join task
+    private static final int COMPARISONS_PER_TASK = 10_000;
+
+    private final ForkJoinPool pool;
+
+    private final int maxBlockSize;
+
+    /**
+     * @param pool the pool the block comparisons run on
+     * @param maxBlockSize blocks larger than this are skipped, since a key shared by that many contacts
+     *                     (a switchboard number, a placeholder email) says nothing about duplication
+     */
+    public DuplicateDetector(ForkJoinPool pool, int maxBlockSize) {
+        this.pool = pool;
+        this.maxBlockSize = maxBlockSize;
+    }
+
+    /**
+     * @param candidates the contacts to search, in normalized form
+     * @return the duplicate groups, each with its lowest id as the survivor
+     */
+    public List<DuplicateGroup> detect(List<Candidate> candidates) {
+        List<List<Candidate>> blocks = new ArrayList<>();
+        int skipped = 0;
+        for (List<Candidate> block : buildBlocks(candidates).values()) {
+            if (block.size() > maxBlockSize) {
+                skipped++;
+            } else if (block.size() > 1) {
+                blocks.add(block);
+            }
+        }
+        if (skipped > 0) {
+            log.info("Skipped {} blocking keys shared by more than {} contacts", skipped, maxBlockSize);
+        }
+
+        List<Match> matches = pool.invoke(new CompareBlocksTask(blocks, 0, blocks.size()));
+        return toGroups(matches);
+    }
+
+    private static Map<String, List<Candidate>> buildBlocks(List<Candidate> candidates) {
+        Map<String, List<Candidate>> blocks = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            String tenant = candidate.tenantId + "|";
+            if (candidate.phone.length() >= 7) {
+                blocks.computeIfAbsent(tenant + "p:" + candidate.phone, key -> new ArrayList<>()).add(candidate);
+            }
+            if (!candidate.email.isEmpty()) {
+                blocks.computeIfAbsent(tenant + "e:" + candidate.email, key -> new ArrayList<>()).add(candidate);
+            }
+            // A name code alone is shared by far too many people, so each one is blocked with a field that corroborates it
+            if (!candidate.nameCode.isEmpty()) {
+                String name = tenant + "n:" + candidate.nameCode;
+                if (!candidate.phoneSuffix.isEmpty()) {
+                    blocks.computeIfAbsent(name + "|p:" + candidate.phoneSuffix, key -> new ArrayList<>()).add(candidate);
+                }
+                if (!candidate.emailUser.isEmpty()) {
+                    blocks.computeIfAbsent(name + "|e:" + candidate.emailUser, key -> new ArrayList<>()).add(candidate);
+                }
+                if (!candidate.address.isEmpty()) {
+                    blocks.computeIfAbsent(name + "|a:" + candidate.address, key -> new ArrayList<>()).add(candidate);
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Decides whether two contacts of the same block are the same person.
+     *
+     * @return the reason they match, or null if they do not
+     */
+    static String compare(Candidate a, Candidate b) {
+        if (!a.tenantId.equals(b.tenantId)) {
+            return null;
+        }
+        if (!a.phone.isEmpty() && a.phone.equals(b.phone)) {
+            return REASON_PHONE;
+        }
+        if (!a.email.isEmpty() && a.email.equals(b.email)) {
+            return REASON_EMAIL;
+        }
+        // Names that sound alike, in either order, only count together with another field the contacts share
+        if (!a.nameCode.isEmpty() && a.nameCode.equals(b.nameCode)
+                && (sameNonEmpty(a.phoneSuffix, b.phoneSuffix) || sameNonEmpty(a.emailUser, b.emailUser)
+                || sameNonEmpty(a.address, b.address))) {
+            return REASON_NAME;
+        }
+        return null;
+    }
+
+    private static boolean sameNonEmpty(String a, String b) {
+        return !a.isEmpty() && a.equals(b);
+    }
+
+    private static List<DuplicateGroup> toGroups(List<Match> matches) {
+        Map<Long, Long> parents = new HashMap<>();
+        for (Match match : matches) {
+            Long rootA = find(parents, match.a);
+            Long rootB = find(parents, match.b);
+            if (!rootA.equals(rootB)) {
+                // The lowest id becomes the root, so it is also the survivor of the group
+                parents.put(Math.max(rootA, rootB), Math.min(rootA, rootB));
+            }
+        }
+
+        Map<Long, TreeSet<Long>> members = new HashMap<>();
+        Map<Long, Set<String>> reasons = new HashMap<>();
+        // Only contacts of the same tenant match, so every match of a group has the group's tenant
+        Map<Long, String> tenants = new HashMap<>();
+        for (Match match : matches) {
+            Long root = find(parents, match.a);
+            tenants.put(root, match.tenantId);
+            TreeSet<Long> group = members.computeIfAbsent(root, key -> new TreeSet<>());
+            group.add(match.a);
+            group.add(match.b);
+            reasons.computeIfAbsent(root, key -> new TreeSet<>()).add(match.reason);
+        }
+
+        List<DuplicateGroup> groups = new ArrayList<>(members.size());
+        for (Map.Entry<Long, TreeSet<Long>> entry : members.entrySet()) {
+            TreeSet<Long> group = entry.getValue();
+            Long survivorId = group.pollFirst();
+            groups.add(new DuplicateGroup(tenants.get(entry.getKey()), survivorId, new ArrayList<>(group), reasons.get(entry.getKey())));
+        }
+        groups.sort((g1, g2) -> Long.compare(g1.getSurvivorId(), g2.getSurvivorId()));
+        return groups;
+    }
+
+    private static Long find(Map<Long, Long> parents, Long id) {
+        Long root = id;
+        Long parent;
+        while ((parent = parents.get(root)) != null) {
+            root = parent;
+        }
+        // Path compression keeps later lookups close to constant time
+        Long current = id;
+        while (!current.equals(root)) {
+            Long next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    /**
+     * Compares every pair within a range of blocks, splitting the range while it holds more work than one task should do.
+     */
+    private static final class CompareBlocksTask extends RecursiveTask<List<Match>> {
+
+        private final List<List<Candidate>> blocks;
+        private final int from;
+        private final int to;
+
+        CompareBlocksTask(List<List<Candidate>> blocks, int from, int to) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Match> compute() {
+            if (to - from > 1 && comparisons() > COMPARISONS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                CompareBlocksTask left = new CompareBlocksTask(blocks, from, middle);
+                left.fork();
+                List<Match> matches = new CompareBlocksTask(blocks, middle, to).compute();
+                matches.addAll(left.join());
+                return matches;
+            }
+
+            List<Match> matches = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                List<Candidate> block = blocks.get(i);
+                for (int a = 0; a < block.size(); a++) {
+                    for (int b = a + 1; b < block.size(); b++) {
+                        String reason = compare(block.get(a), block.get(b));
+                        if (reason != null) {
+                            matches.add(new Match(block.get(a).tenantId, block.get(a).id, block.get(b).id, reason));
+                        }
+                    }
+                }
+            }
+            return matches;
+        }
+
+        private long comparisons() {
+            long comparisons = 0;
+            for (int i = from; i < to; i++) {
+                long size = blocks.get(i).size();
+                comparisons += size * (size - 1) / 2;
+            }
+            return comparisons;
+        }
+    }
+
+    private static final class Match {
+
+        private final String tenantId;
+        private final Long a;
+        private final Long b;
+        private final String reason;
+
+        Match(String tenantId, Long a, Long b, String reason) {
+            this.tenantId = tenantId;
+            this.a = a;
+            this.b = b;
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * The normalized fields of a contact that duplicate detection looks at.
+     */
+    public static final class Candidate {
+
+        private final Long id;
+        private final String tenantId;
+        private final String phone;
+        private final String phoneSuffix;
+        private final String email;
+        private final String emailUser;
+        private final String address;
+        private final String nameCode;
+
+        public Candidate(Long id, String tenantId, String firstName, String lastName, String phoneNumber, String email) {
+            this(id, tenantId, firstName, lastName, phoneNumber, email, null);
+        }
+
+        public Candidate(Long id, String tenantId, String firstName, String lastName, String phoneNumber, String email,
+                         String address) {
+            this.id = id;
+            this.tenantId = tenantId != null ? tenantId : TenantContext.DEFAULT_TENANT;
+            this.phone = ContactNormalizer.normalizePhone(phoneNumber);
+            this.phoneSuffix = phone.length() >= PHONE_SUFFIX_LENGTH ? phone.substring(phone.length() - PHONE_SUFFIX_LENGTH) : "";
+            this.email = ContactNormalizer.normalizeEmail(email);
+            int at = this.email.indexOf('@');
+            this.emailUser = at > 0 ? this.email.substring(0, at) : "";
+            this.address = ContactNormalizer.normalizeAddress(address);
+
+            // Order the two codes so that swapped first and last names land in the same block
+            String first = ContactNormalizer.soundex(firstName);
+            String last = ContactNormalizer.soundex(lastName);
+            this.nameCode = first.isEmpty() || last.isEmpty() ? ""
+                    : first.compareTo(last) <= 0 ? first + last : last + first;
+        }
+
+        public static Candidate of(Contact contact) {
+            return new Candidate(contact.getId(), contact.getTenantId(), contact.getFirstName(), contact.getLastName(),
+                    contact.getPhoneNumber(), contact.getEmail(), contact.getAddress());
+        }
+    }
+}
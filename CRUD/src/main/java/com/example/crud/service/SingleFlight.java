@@ -0,0 +1,91 @@
+package com.example.crud.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent lookups of the same key into one call. The first caller for a key runs the lookup;
+ * callers that arrive while it is in flight wait for it and receive the same result, or the same exception.
+ * Nothing is cached: once the lookup finishes, the next caller for the key starts a new one.
+ *
+ * @param <K> the lookup key
+ * @param <V> the lookup result
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder executions = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param key the lookup key; a null key is never coalesced
+     * @param loader the lookup, run at most once per key at a time
+     * @return the result of the lookup, possibly one started by another thread
+     */
+    public V execute(K key, Supplier<V> loader) {
+        calls.increment();
+        if (key == null) {
+            executions.increment();
+            return loader.get();
+        }
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return how many calls were made, how many ran the lookup, and how many shared another call's lookup
+     */
+    public Map<String, Object> getMetrics() {
+        long callCount = calls.sum();
+        long coalescedCount = coalesced.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("calls", callCount);
+        metrics.put("executions", executions.sum());
+        metrics.put("coalesced", coalescedCount);
+        metrics.put("coalescedRatio", callCount == 0 ? 0.0 : (double) coalescedCount / callCount);
+        metrics.put("inFlight", inFlight.size());
+        return metrics;
+    }
+
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            // Rethrow what the leading call threw, so callers handle it the same way as an uncoalesced call
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.crud.tenant;
+
+import com.example.crud.repository.ContactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves contacts saved before tenants existed, which have no tenantId, into the default tenant at startup.
+ * Until then no tenant-scoped query can see them. Runs before the other startup listeners, so the spatial index
+ * and resumed jobs only ever see tenant-owned contacts.
+ */
+@Component
+public class DefaultTenantBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(DefaultTenantBackfill.class);
+
+    private final ContactRepository contactRepository;
+
+    public DefaultTenantBackfill(ContactRepository contactRepository) {
+        this.contactRepository = contactRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void assignDefaultTenant() {
+        int moved = contactRepository.assignTenantWhereMissing(TenantContext.DEFAULT_TENANT);
+        if (moved > 0) {
+            log.info("Moved {} contacts without a tenant into the '{}' tenant", moved, TenantContext.DEFAULT_TENANT);
+        }
+    }
+}
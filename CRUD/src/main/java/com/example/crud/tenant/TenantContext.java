@@ -0,0 +1,32 @@
+package com.example.crud.tenant;
+
+/**
+ * The tenant whose contact list the current request works on. Set by {@link TenantResolver} for each API request;
+ * code running outside a request (tests, background jobs) sees the default tenant.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+
+    }
+
+    /**
+     * @return the current tenant id, or {@link #DEFAULT_TENANT} if none was set
+     */
+    public static String getTenantId() {
+        String tenantId = CURRENT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+
+    public static void setTenantId(String tenantId) {
+        CURRENT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
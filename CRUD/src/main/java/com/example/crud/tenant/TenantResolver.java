@@ -0,0 +1,40 @@
+package com.example.crud.tenant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the tenant of each request from the X-Tenant-ID header into {@link TenantContext}.
+ * Requests without the header use the default tenant; requests with a malformed tenant id are rejected
+ * with BAD_REQUEST before they reach a controller.
+ */
+public class TenantResolver implements HandlerInterceptor {
+
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String tenantId = request.getHeader(TENANT_HEADER);
+        if (tenantId == null || tenantId.isEmpty()) {
+            TenantContext.clear();
+            return true;
+        }
+        if (!TENANT_ID.matcher(tenantId).matches()) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + TENANT_HEADER);
+            return false;
+        }
+        TenantContext.setTenantId(tenantId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        TenantContext.clear();
+    }
+}
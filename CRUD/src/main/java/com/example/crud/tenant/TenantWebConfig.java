@@ -0,0 +1,14 @@
+package com.example.crud.tenant;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class TenantWebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TenantResolver()).addPathPatterns("/api/contacts", "/api/contacts/**", "/api/dedup/**");
+    }
+}
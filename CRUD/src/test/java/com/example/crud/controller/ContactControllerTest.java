@@ -1,7 +1,13 @@
 package com.example.crud.controller;
 
+import com.example.crud.geo.SpatialIndex;
 import com.example.crud.model.Contact;
+import com.example.crud.query.ContactQueryPlanner;
+import com.example.crud.query.QueryPlan;
 import com.example.crud.repository.ContactRepository;
+import com.example.crud.service.CoalescingContactReader;
+import com.example.crud.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -11,17 +17,22 @@ import org.mockito.MockitoAnnotations;
 import static org.mockito.ArgumentMatchers.any;
 
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class ContactControllerTest {
+    static final String TENANT = TenantContext.DEFAULT_TENANT;
+
     @Mock
     ContactRepository contactRepository;
 
@@ -31,6 +42,14 @@ class ContactControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        contactController.contactReader = new CoalescingContactReader(contactRepository);
+        contactController.queryPlanner = new ContactQueryPlanner();
+        contactController.spatialIndex = new SpatialIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
     }
 
 
@@ -54,7 +73,7 @@ class ContactControllerTest {
         String existingPhoneNumber = "555-555-1234";
         List<Contact> expectedContacts = new ArrayList<>();
         expectedContacts.add(new Contact("Alan", "Wang", "555-555-1234", "alan.wang@example.com", "123 Main St"));
-        when(contactRepository.findByPhoneNumberContaining(existingPhoneNumber)).thenReturn(expectedContacts);
+        when(contactRepository.findByTenantIdAndPhoneNumberContaining(TENANT, existingPhoneNumber)).thenReturn(expectedContacts);
 
         // When
         ResponseEntity<List<Contact>> responseEntity = contactController.getAllContacts(Optional.of(existingPhoneNumber));
@@ -67,7 +86,7 @@ class ContactControllerTest {
     @Test
     void testGetAllContactsWhenNoContacts() {
         // Given
-        when(contactRepository.findAll()).thenReturn(Collections.emptyList());
+        when(contactRepository.findByTenantId(TENANT)).thenReturn(Collections.emptyList());
 
         // When
         ResponseEntity<List<Contact>> responseEntity = contactController.getAllContacts(Optional.empty());
@@ -85,7 +104,7 @@ class ContactControllerTest {
         List<Contact> expectedContacts = new ArrayList<>();
         expectedContacts.add(new Contact("John", "Doe", "555-1234", "john.doe@example.com", "123 Main St"));
         expectedContacts.add(new Contact("Jane", "Doe", "555-5678", "jane.doe@example.com", "456 Main St"));
-        when(contactRepository.findAll()).thenReturn(expectedContacts);
+        when(contactRepository.findByTenantId(TENANT)).thenReturn(expectedContacts);
 
         // When
         ResponseEntity<List<Contact>> responseEntity = contactController.getAllContacts(Optional.empty());
@@ -96,6 +115,24 @@ class ContactControllerTest {
     }
 
 
+    @Test
+    void testGetAllContactsOnlyReadsCurrentTenant() {
+        // Given
+        TenantContext.setTenantId("acme");
+        List<Contact> acmeContacts = Collections.singletonList(new Contact("John", "Doe", "555-1234", "john.doe@example.com", "123 Main St"));
+        when(contactRepository.findByTenantId("acme")).thenReturn(acmeContacts);
+
+        // When
+        ResponseEntity<List<Contact>> responseEntity = contactController.getAllContacts(Optional.empty());
+
+        // Then
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(acmeContacts, responseEntity.getBody());
+        verify(contactRepository, never()).findByTenantId(TENANT);
+        verify(contactRepository, never()).findAll();
+    }
+
+
     @Test
     void testGetAllContactsWhenLargeAmountContacts() {
         // Given
@@ -103,7 +140,7 @@ class ContactControllerTest {
         for (int i = 1; i <= 10000; i++) {
             expectedContacts.add(new Contact("First" + i, "Last" + i, "555-555-" + i, "first.last" + i + "@example.com", i + " Main St"));
         }
-        when(contactRepository.findAll()).thenReturn(expectedContacts);
+        when(contactRepository.findByTenantId(TENANT)).thenReturn(expectedContacts);
 
         // When
         ResponseEntity<List<Contact>> responseEntity = contactController.getAllContacts(Optional.empty());
@@ -117,7 +154,7 @@ class ContactControllerTest {
     @Test
     void testGetAllContactsWhenExceptionThrown() {
         // Given
-        when(contactRepository.findByPhoneNumberContaining(anyString())).thenThrow(new RuntimeException());
+        when(contactRepository.findByTenantIdAndPhoneNumberContaining(anyString(), anyString())).thenThrow(new RuntimeException());
 
         // When
         ResponseEntity<List<Contact>> responseEntity = contactController.getAllContacts(Optional.of("555-555"));
@@ -128,12 +165,68 @@ class ContactControllerTest {
     }
 
 
+    @Test
+    void testGetAllContactFieldsReturnsOnlySelectedFields() {
+        // Given
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("firstName", "Alan");
+        List<Map<String, Object>> expectedRows = Collections.singletonList(row);
+        when(contactRepository.findAllFields(TENANT, Arrays.asList("id", "firstName"))).thenReturn(expectedRows);
+
+        // When
+        ResponseEntity<List<Map<String, Object>>> responseEntity = contactController.getAllContactFields(" id, firstName,id ", Optional.empty());
+
+        // Then
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(expectedRows, responseEntity.getBody());
+        verify(contactRepository, never()).findByTenantId(anyString());
+    }
+
+
+    @Test
+    void testGetAllContactFieldsWithPhoneNumber() {
+        // Given
+        List<String> fields = Arrays.asList("id", "phoneNumber");
+        when(contactRepository.findFieldsByPhoneNumberContaining(TENANT, fields, "555")).thenReturn(Collections.emptyList());
+
+        // When
+        ResponseEntity<List<Map<String, Object>>> responseEntity = contactController.getAllContactFields("id,phoneNumber", Optional.of("555"));
+
+        // Then
+        assertEquals(HttpStatus.NO_CONTENT, responseEntity.getStatusCode());
+        verify(contactRepository, times(1)).findFieldsByPhoneNumberContaining(TENANT, fields, "555");
+    }
+
+
+    @Test
+    void testGetAllContactFieldsWithUnknownField() {
+        // Given
+        when(contactRepository.findAllFields(anyString(), anyList())).thenThrow(new IllegalArgumentException("Unknown contact field: password"));
+
+        // When
+        ResponseEntity<List<Map<String, Object>>> responseEntity = contactController.getAllContactFields("id,password", Optional.empty());
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+    }
+
+
+    @Test
+    void testGetAllContactFieldsWithBlankFields() {
+        ResponseEntity<List<Map<String, Object>>> responseEntity = contactController.getAllContactFields(" , ", Optional.empty());
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        verifyNoInteractions(contactRepository);
+    }
+
+
     @Test
     void testGetContactByIdWhenContactExists() {
         // Given
         long id = 1L;
         Contact contact = new Contact("John", "Doe", "555-555-1234", "john.doe@example.com", "123 Main St");
-        when(contactRepository.findById(id)).thenReturn(Optional.of(contact));
+        when(contactRepository.readByTenantIdAndId(TENANT, id)).thenReturn(Optional.of(contact));
 
         // When
         ResponseEntity<Contact> responseEntity = contactController.getContactById(id);
@@ -148,7 +241,7 @@ class ContactControllerTest {
     void testGetContactByIdWhenContactDoesNotExist() {
         // Given
         long nonExistentId = 999L;
-        when(contactRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+        when(contactRepository.readByTenantIdAndId(TENANT, nonExistentId)).thenReturn(Optional.empty());
 
         // When
         ResponseEntity<Contact> responseEntity = contactController.getContactById(nonExistentId);
@@ -178,7 +271,7 @@ class ContactControllerTest {
         String firstName = "Alan";
         List<Contact> expectedContacts = new ArrayList<>();
         expectedContacts.add(new Contact(firstName, "Wang", "555-555-1234", "alan.wang@example.com", "123 Main St"));
-        when(contactRepository.findByFirstName(firstName)).thenReturn(expectedContacts);
+        when(contactRepository.findByTenantIdAndFirstName(TENANT, firstName)).thenReturn(expectedContacts);
 
         // When
         ResponseEntity<List<Contact>> responseEntity = contactController.getContactsByFirstName(firstName);
@@ -210,7 +303,7 @@ class ContactControllerTest {
         Contact contact2 = new Contact(firstName, "Wang", "555-555-1235", "alanwang@example.com", "123 Main St");
         List<Contact> contacts = Arrays.asList(contact1, contact2);
 
-        when(contactRepository.findByFirstName(firstName)).thenReturn(contacts);
+        when(contactRepository.findByTenantIdAndFirstName(TENANT, firstName)).thenReturn(contacts);
 
         ResponseEntity<List<Contact>> responseEntity = contactController.getContactsByFirstName(firstName);
 
@@ -239,6 +332,25 @@ class ContactControllerTest {
     }
 
 
+    @Test
+    void testGetContactFieldsByFirstName() {
+        // Given
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("lastName", "Wang");
+        List<Map<String, Object>> expectedRows = Collections.singletonList(row);
+        when(contactRepository.findFieldsByFirstName(TENANT, Arrays.asList("id", "lastName"), "Alan")).thenReturn(expectedRows);
+
+        // When
+        ResponseEntity<List<Map<String, Object>>> responseEntity = contactController.getContactFieldsByFirstName("Alan", "id,lastName");
+
+        // Then
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(expectedRows, responseEntity.getBody());
+        verify(contactRepository, never()).findByTenantIdAndFirstName(anyString(), anyString());
+    }
+
+
     @Test
     void testCreateContactWhenContactDoesNotExist() {
         // Given
@@ -258,7 +370,7 @@ class ContactControllerTest {
         // Given
         Contact existingContact = new Contact("Alan", "Wang", "555-555-1234", "alan.wang@example.com", "123 Main St");
         List<Contact> existingContacts = Collections.singletonList(existingContact);
-        when(contactRepository.findByPhoneNumberContaining(anyString())).thenReturn(existingContacts);
+        when(contactRepository.findByTenantIdAndPhoneNumberContaining(anyString(), anyString())).thenReturn(existingContacts);
         Contact newContact = new Contact("Alan", "Wang", "555-555-1234", "alan.wang@example.com", "123 Main St");
 
         // When
@@ -270,6 +382,23 @@ class ContactControllerTest {
     }
 
 
+    @Test
+    void testCreateContactAssignsCurrentTenant() {
+        // Given
+        TenantContext.setTenantId("acme");
+        Contact contact = new Contact("Alan", "Wang", "555-555-1234", "alan.wang@example.com", "123 Main St");
+        when(contactRepository.save(any(Contact.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ResponseEntity<Contact> responseEntity = contactController.createContact(contact);
+
+        // Then
+        assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+        assertEquals("acme", responseEntity.getBody().getTenantId());
+        verify(contactRepository, times(1)).findByTenantIdAndPhoneNumberContaining("acme", "555-555-1234");
+    }
+
+
     @Test
     void testCreateContactWithInvalidData() {
         // Given
@@ -305,7 +434,7 @@ class ContactControllerTest {
         existingContact.setId(contactId);
         Contact updatedContact = new Contact("Alan", "Wang", "555-555-5555", "alan.wang@example.com", "123 Main St");
         updatedContact.setId(contactId);
-        when(contactRepository.findById(contactId)).thenReturn(Optional.of(existingContact));
+        when(contactRepository.findByTenantIdAndId(TENANT, contactId)).thenReturn(Optional.of(existingContact));
         when(contactRepository.save(any(Contact.class))).thenReturn(updatedContact);
 
         // When
@@ -323,7 +452,7 @@ class ContactControllerTest {
         Long contactId = 1L;
         Contact updatedContact = new Contact("Alan", "Wang", "555-555-5555", "alan.wang@example.com", "123 Main St");
         updatedContact.setId(contactId);
-        when(contactRepository.findById(contactId)).thenReturn(Optional.empty());
+        when(contactRepository.findByTenantIdAndId(TENANT, contactId)).thenReturn(Optional.empty());
 
         // When
         ResponseEntity<Contact> responseEntity = contactController.updateContact(contactId, updatedContact);
@@ -341,7 +470,7 @@ class ContactControllerTest {
         existingContact.setId(contactId);
         Contact updatedContact = new Contact(null, null, null, null, null);
         updatedContact.setId(contactId);
-        when(contactRepository.findById(contactId)).thenReturn(Optional.of(existingContact));
+        when(contactRepository.findByTenantIdAndId(TENANT, contactId)).thenReturn(Optional.of(existingContact));
         when(contactRepository.save(any(Contact.class))).thenReturn(updatedContact);
 
         // When
@@ -361,7 +490,7 @@ class ContactControllerTest {
         Contact updatedContact = new Contact("Alan", "Wang", "555-555-5555", "alan.wang@example.com", "123 Main St");
         updatedContact.setId(contactId);
         Contact conflictingContact = new Contact("Bob", "Smith", "555-555-5555", "bob.smith@example.com", "456 Oak St");
-        when(contactRepository.findById(contactId)).thenReturn(Optional.of(existingContact));
+        when(contactRepository.findByTenantIdAndId(TENANT, contactId)).thenReturn(Optional.of(existingContact));
         when(contactRepository.save(any(Contact.class))).thenAnswer(invocation -> {
             Contact contact = invocation.getArgument(0);
             if (conflictingContact.getPhoneNumber().equals(contact.getPhoneNumber())) {
@@ -378,6 +507,23 @@ class ContactControllerTest {
     }
 
 
+    @Test
+    void testUpdateContactChangedConcurrently() {
+        // Given
+        Long contactId = 1L;
+        Contact existingContact = new Contact("Alan", "Wang", "555-555-1234", "alan.wang@example.com", "123 Main St");
+        Contact updatedContact = new Contact("Alan", "Wang", "555-555-5555", "alan.wang@example.com", "123 Main St");
+        when(contactRepository.findByTenantIdAndId(TENANT, contactId)).thenReturn(Optional.of(existingContact));
+        when(contactRepository.save(any(Contact.class))).thenThrow(new OptimisticLockingFailureException("Row was updated by another transaction"));
+
+        // When
+        ResponseEntity<Contact> responseEntity = contactController.updateContact(contactId, updatedContact);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+    }
+
+
     @Test
     void testUpdateContactWithInvalidData() {
         // Given
@@ -386,7 +532,7 @@ class ContactControllerTest {
         existingContact.setId(contactId);
         Contact updatedContact = new Contact("Alan", "Wang", "555-555-1234", "", "");
         updatedContact.setId(contactId);
-        when(contactRepository.findById(contactId)).thenReturn(Optional.of(existingContact));
+        when(contactRepository.findByTenantIdAndId(TENANT, contactId)).thenReturn(Optional.of(existingContact));
         when(contactRepository.save(any(Contact.class))).thenThrow(DataIntegrityViolationException.class);
 
         // When
@@ -401,7 +547,7 @@ class ContactControllerTest {
     void testDeleteContactSuccess() {
         // Given
         Long contactId = 1L;
-        doNothing().when(contactRepository).deleteById(contactId);
+        when(contactRepository.deleteByTenantIdAndId(TENANT, contactId)).thenReturn(1L);
 
         // When
         ResponseEntity<HttpStatus> responseEntity = contactController.deleteContact(contactId);
@@ -415,7 +561,7 @@ class ContactControllerTest {
     void testDeleteNonExistentContact() {
         // Given
         Long contactId = 1L;
-        doThrow(EmptyResultDataAccessException.class).when(contactRepository).deleteById(contactId);
+        when(contactRepository.deleteByTenantIdAndId(TENANT, contactId)).thenReturn(0L);
 
         // When
         ResponseEntity<HttpStatus> responseEntity = contactController.deleteContact(contactId);
@@ -429,7 +575,7 @@ class ContactControllerTest {
     void testDeleteContactUnexpectedError() {
         // Given
         Long contactId = 1L;
-        doThrow(RuntimeException.class).when(contactRepository).deleteById(contactId);
+        when(contactRepository.deleteByTenantIdAndId(TENANT, contactId)).thenThrow(RuntimeException.class);
 
         // When
         ResponseEntity<HttpStatus> responseEntity = contactController.deleteContact(contactId);
@@ -456,20 +602,22 @@ class ContactControllerTest {
     void testDeleteAllContacts() {
         // Given
         when(contactRepository.count()).thenReturn(10L);
+        contactController.spatialIndex.put(1L, TENANT, 39.8017, -89.6436);
 
         // When
         ResponseEntity<HttpStatus> responseEntity = contactController.deleteAllContacts();
 
         // Then
         assertEquals(HttpStatus.NO_CONTENT, responseEntity.getStatusCode());
-        verify(contactRepository, times(1)).deleteAll();
+        verify(contactRepository, times(1)).deleteByTenantId(TENANT);
+        assertEquals(0, contactController.spatialIndex.size());
     }
 
 
     @Test
     void testDeleteAllContactsWhenRepositoryIsEmpty() {
         // mock repository to return empty list of contacts
-        when(contactRepository.findAll()).thenReturn(Collections.emptyList());
+        when(contactRepository.findByTenantId(TENANT)).thenReturn(Collections.emptyList());
         // execute delete all contacts
         ResponseEntity<HttpStatus> responseEntity = contactController.deleteAllContacts();
 
@@ -498,11 +646,86 @@ class ContactControllerTest {
     @Test
     void testDeleteAllContactsWithException() {
         // mock the repository's deleteAll method to throw an exception
-        doThrow(new RuntimeException("Failed to delete contacts")).when(contactRepository).deleteAll();
+        doThrow(new RuntimeException("Failed to delete contacts")).when(contactRepository).deleteByTenantId(TENANT);
 
         // call the deleteAllContacts endpoint and assert that an internal server error is returned
         ResponseEntity<HttpStatus> responseEntity = contactController.deleteAllContacts();
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void testQueryContactsRunsIndexedQuery() {
+        // Given
+        List<Contact> expectedContacts = List.of(new Contact("Alan", "Wang", "555-555-1234", "alan.wang@example.com", "123 Main St"));
+        when(contactRepository.findByPlan(eq(TENANT), any())).thenReturn(expectedContacts);
+
+        // When
+        ResponseEntity<List<Contact>> responseEntity = contactController.queryContacts(List.of("lastName:prefix:Wa"), List.of("lastName"), 10, false);
+
+        // Then
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(expectedContacts, responseEntity.getBody());
+        assertFalse(responseEntity.getHeaders().containsKey(HttpHeaders.WARNING));
+    }
+
+
+    @Test
+    void testQueryContactsRejectsScanUnlessAllowed() {
+        // Given
+        List<String> filters = List.of("address:prefix:123");
+
+        // When
+        ResponseEntity<List<Contact>> rejected = contactController.queryContacts(filters, null, null, false);
+        ResponseEntity<List<Contact>> allowed = contactController.queryContacts(filters, null, null, true);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        assertTrue(rejected.getHeaders().containsKey(HttpHeaders.WARNING));
+        assertEquals(HttpStatus.NO_CONTENT, allowed.getStatusCode());
+        verify(contactRepository, times(1)).findByPlan(eq(TENANT), any());
+    }
+
+
+    @Test
+    void testExplainContactQueryReturnsPlan() {
+        // When
+        ResponseEntity<QueryPlan> responseEntity = contactController.explainContactQuery(List.of("email:eq:alan.wang@example.com"), null, null);
+
+        // Then
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("idx_contacts_tenant_email", responseEntity.getBody().getIndex());
+        verify(contactRepository, never()).findByPlan(any(), any());
+    }
+
+
+    @Test
+    void testGetContactsNearReturnsNearestFirst() {
+        // Given
+        Contact near = new Contact("Alan", "Wang", "555-555-1234", "alan.wang@example.com", "1 Capitol Ave, Springfield, IL 62701");
+        ReflectionTestUtils.setField(near, "id", 1L);
+        Contact far = new Contact("Grace", "Hopper", "555-555-5678", "grace.hopper@example.com", "2 State St, Madison, WI 53703");
+        ReflectionTestUtils.setField(far, "id", 2L);
+        contactController.spatialIndex.put(1L, TENANT, 39.8017, -89.6436);
+        contactController.spatialIndex.put(2L, TENANT, 43.0776, -89.3771);
+        when(contactRepository.findByTenantIdAndIdIn(eq(TENANT), any())).thenReturn(List.of(far, near));
+
+        // When
+        ResponseEntity<List<Contact>> responseEntity = contactController.getContactsNear(39.80, -89.65, 500, 10);
+
+        // Then
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(List.of(near, far), responseEntity.getBody());
+    }
+
+
+    @Test
+    void testGetContactsNearWithInvalidRadius() {
+        // When
+        ResponseEntity<List<Contact>> responseEntity = contactController.getContactsNear(39.80, -89.65, 0, 10);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        verify(contactRepository, never()).findByTenantIdAndIdIn(any(), any());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.crud.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddressNormalizerTest {
+
+    @Test
+    void testFullAddressIsSplitIntoParts() {
+        // When
+        NormalizedAddress address = AddressNormalizer.normalize("123 Main St., springfield,  IL 62704-1234, USA", "CA");
+
+        // Then
+        assertEquals("123 Main Street", address.getStreet());
+        assertEquals("Springfield", address.getCity());
+        assertEquals("IL", address.getRegion());
+        assertEquals("62704", address.getPostalCode());
+        assertEquals("US", address.getCountry());
+    }
+
+
+    @Test
+    void testPartialAddressesKeepWhatTheyName() {
+        // When
+        NormalizedAddress streetOnly = AddressNormalizer.normalize("21st Avenue", "US");
+        NormalizedAddress streetAndCity = AddressNormalizer.normalize("4 Oak Rd, Madison", "US");
+        NormalizedAddress cityAndRegion = AddressNormalizer.normalize("New York, NY", "US");
+
+        // Then
+        assertEquals("21st Avenue", streetOnly.getStreet());
+        assertNull(streetOnly.getCity());
+        assertEquals("4 Oak Road", streetAndCity.getStreet());
+        assertEquals("Madison", streetAndCity.getCity());
+        assertNull(streetAndCity.getRegion());
+        assertNull(cityAndRegion.getStreet());
+        assertEquals("New York", cityAndRegion.getCity());
+        assertEquals("NY", cityAndRegion.getRegion());
+    }
+
+
+    @Test
+    void testCanadianPostalCode() {
+        // When
+        NormalizedAddress address = AddressNormalizer.normalize("290 Bremner Blvd, Toronto ON m5v3l9, Canada", "US");
+
+        // Then
+        assertEquals("290 Bremner Boulevard", address.getStreet());
+        assertEquals("Toronto", address.getCity());
+        assertEquals("ON", address.getRegion());
+        assertEquals("M5V 3L9", address.getPostalCode());
+        assertEquals("CA", address.getCountry());
+    }
+
+
+    @Test
+    void testNoAddress() {
+        // When
+        NormalizedAddress address = AddressNormalizer.normalize("  ", "US");
+
+        // Then
+        assertNull(address.getStreet());
+        assertNull(address.getCity());
+        assertNull(address.getCountry());
+    }
+}
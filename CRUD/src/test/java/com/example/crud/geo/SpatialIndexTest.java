@@ -0,0 +1,100 @@
+package com.example.crud.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialIndexTest {
+
+    static final String TENANT = "default";
+
+    SpatialIndex index = new SpatialIndex();
+
+
+    @Test
+    void testRadiusReturnsNearestFirst() {
+        // Given: two contacts in Springfield IL, one in Madison WI and one in another tenant
+        index.put(1L, TENANT, 39.8017, -89.6436);
+        index.put(2L, TENANT, 39.7718, -89.6868);
+        index.put(3L, TENANT, 43.0776, -89.3771);
+        index.put(4L, "other", 39.8017, -89.6436);
+
+        // When
+        List<Long> near = index.findWithinRadius(TENANT, 39.80, -89.65, 10, 10);
+        List<Long> wide = index.findWithinRadius(TENANT, 39.80, -89.65, 500, 10);
+        List<Long> limited = index.findWithinRadius(TENANT, 39.80, -89.65, 500, 1);
+
+        // Then
+        assertEquals(List.of(1L, 2L), near);
+        assertEquals(List.of(1L, 2L, 3L), wide);
+        assertEquals(List.of(1L), limited);
+    }
+
+
+    @Test
+    void testBoundingBoxIncludingAcrossTheAntimeridian() {
+        // Given
+        index.put(1L, TENANT, 40.0, -89.0);
+        index.put(2L, TENANT, -17.7, 178.1);
+        index.put(3L, TENANT, -17.5, -179.9);
+
+        // When
+        List<Long> illinois = index.findWithinBox(TENANT, 39, -90, 41, -88, 10);
+        List<Long> fiji = index.findWithinBox(TENANT, -20, 177, -15, -179, 10);
+
+        // Then
+        assertEquals(List.of(1L), illinois);
+        assertEquals(2, fiji.size());
+        assertTrue(fiji.containsAll(List.of(2L, 3L)));
+    }
+
+
+    @Test
+    void testMovedAndRemovedContactsLeaveTheirOldCell() {
+        // Given
+        index.put(1L, TENANT, 39.8017, -89.6436);
+
+        // When
+        index.put(1L, TENANT, 43.0776, -89.3771);
+
+        // Then
+        assertTrue(index.findWithinRadius(TENANT, 39.8017, -89.6436, 5, 10).isEmpty());
+        assertEquals(List.of(1L), index.findWithinRadius(TENANT, 43.0776, -89.3771, 5, 10));
+
+        // When
+        index.remove(1L);
+        index.putIfAbsent(2L, TENANT, 43.0776, -89.3771);
+
+        // Then
+        assertEquals(List.of(2L), index.findWithinRadius(TENANT, 43.0776, -89.3771, 5, 10));
+        assertEquals(1, index.size());
+    }
+
+
+    @Test
+    void testRemoveTenantKeepsOtherTenants() {
+        // Given
+        index.put(1L, TENANT, 39.8017, -89.6436);
+        index.put(2L, TENANT, 43.0776, -89.3771);
+        index.put(3L, "other", 39.8017, -89.6436);
+
+        // When
+        index.removeTenant(TENANT);
+
+        // Then
+        assertEquals(1, index.size());
+        assertTrue(index.findWithinRadius(TENANT, 39.80, -89.65, 500, 10).isEmpty());
+        assertEquals(List.of(3L), index.findWithinRadius("other", 39.80, -89.65, 500, 10));
+    }
+
+
+    @Test
+    void testOutOfRangeQueriesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> index.findWithinRadius(TENANT, 91, 0, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.findWithinRadius(TENANT, 0, 0, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.findWithinRadius(TENANT, 0, 0, 10, SpatialIndex.MAX_LIMIT + 1));
+        assertThrows(IllegalArgumentException.class, () -> index.findWithinBox(TENANT, 41, -90, 39, -88, 10));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.crud.job;
+
+import com.example.crud.model.Contact;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizePhoneJobTest {
+
+    NormalizePhoneJob job = new NormalizePhoneJob();
+
+
+    @Test
+    void testProcessFillsMissingNormalizedPhones() {
+        // Given
+        Contact formatted = new Contact("Alan", "Wang", "+1 (555) 555-1234", "alan.wang@example.com", "123 Main St");
+        Contact alreadyNormalized = new Contact("Jane", "Doe", "555-555-5678", "jane.doe@example.com", "456 Main St");
+        alreadyNormalized.setNormalizedPhone("5555555678");
+        List<Contact> chunk = Arrays.asList(formatted, alreadyNormalized);
+
+        // When
+        int changed = job.process(chunk);
+
+        // Then
+        assertEquals(1, changed);
+        assertEquals("5555551234", formatted.getNormalizedPhone());
+        assertEquals("5555555678", alreadyNormalized.getNormalizedPhone());
+    }
+
+
+    @Test
+    void testProcessIsIdempotent() {
+        // Given
+        List<Contact> chunk = Arrays.asList(new Contact("Alan", "Wang", "555.555.1234", null, null));
+        job.process(chunk);
+
+        // When
+        int changed = job.process(chunk);
+
+        // Then
+        assertEquals(0, changed);
+    }
+
+}
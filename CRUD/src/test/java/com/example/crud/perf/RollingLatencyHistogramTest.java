@@ -0,0 +1,69 @@
+package com.example.crud.perf;
+
+import com.example.crud.perf.RollingLatencyHistogram.Window;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingLatencyHistogramTest {
+
+    RollingLatencyHistogram histogram = new RollingLatencyHistogram();
+
+
+    @Test
+    void testRecordedLatenciesShowAfterTick() {
+        // Given
+        histogram.record(1_000);
+        histogram.record(2_000);
+        histogram.record(250_000);
+
+        // When
+        histogram.tick();
+        Map<String, Object> oneMinute = histogram.getMetrics(Window.ONE_MINUTE);
+
+        // Then
+        assertEquals(3L, oneMinute.get("count"));
+        assertEquals(10L, oneMinute.get("windowSeconds"));
+        assertEquals(0.3, (double) oneMinute.get("throughputPerSecond"), 0.001);
+        assertEquals(2.0, (double) oneMinute.get("p50Ms"), 0.02);
+        assertEquals(250.0, (double) oneMinute.get("maxMs"), 2.5);
+    }
+
+
+    @Test
+    void testLatenciesLeaveEachWindowAsItRollsOver() {
+        // Given
+        histogram.record(5_000);
+        histogram.tick();
+
+        // When a minute has passed
+        tick(6);
+
+        // Then
+        assertEquals(0L, histogram.getMetrics(Window.ONE_MINUTE).get("count"));
+        assertEquals(1L, histogram.getMetrics(Window.FIVE_MINUTES).get("count"));
+
+        // When more than five minutes have passed, the sample only lives on in the 5-minute slot of the hour
+        tick(24);
+
+        // Then
+        assertEquals(0L, histogram.getMetrics(Window.FIVE_MINUTES).get("count"));
+        assertEquals(1L, histogram.getMetrics(Window.ONE_HOUR).get("count"));
+        assertEquals(310L, histogram.getMetrics(Window.ONE_HOUR).get("windowSeconds"));
+
+        // When more than an hour has passed
+        tick(359);
+
+        // Then
+        assertEquals(0L, histogram.getMetrics(Window.ONE_HOUR).get("count"));
+        assertEquals(3600L, histogram.getMetrics(Window.ONE_HOUR).get("windowSeconds"));
+    }
+
+    private void tick(int times) {
+        for (int i = 0; i < times; i++) {
+            histogram.tick();
+        }
+    }
+}
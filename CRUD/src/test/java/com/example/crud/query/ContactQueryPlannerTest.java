@@ -0,0 +1,92 @@
+package com.example.crud.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactQueryPlannerTest {
+
+    ContactQueryPlanner planner = new ContactQueryPlanner();
+
+
+    @Test
+    void testEqualityThenPrefixUsesCompositeIndexRange() {
+        // Given
+        List<String> filters = List.of("firstName:eq:Alan", "lastName:prefix:Wa");
+
+        // When
+        QueryPlan plan = planner.plan(filters, List.of("lastName"), null);
+
+        // Then
+        assertEquals(QueryPlan.INDEX_RANGE, plan.getAccess());
+        assertEquals("idx_contacts_tenant_name", plan.getIndex());
+        assertEquals(List.of("tenantId", "lastName"), plan.getMatchedColumns());
+        assertEquals(1, plan.getResidualFilters().size());
+        assertEquals("firstName", plan.getResidualFilters().get(0).getField());
+        assertTrue(plan.isSortedByIndex());
+        assertEquals(ContactQueryPlanner.DEFAULT_LIMIT, plan.getLimit());
+    }
+
+
+    @Test
+    void testEqualityFiltersUseIndexSeek() {
+        // When
+        QueryPlan plan = planner.plan(List.of("email:eq:alan.wang@example.com"), List.of(), 10);
+
+        // Then
+        assertEquals(QueryPlan.INDEX_SEEK, plan.getAccess());
+        assertEquals("idx_contacts_tenant_email", plan.getIndex());
+        assertTrue(plan.getResidualFilters().isEmpty());
+        assertTrue(plan.getWarnings().isEmpty());
+        assertFalse(plan.isScan());
+    }
+
+
+    @Test
+    void testNormalizedPhoneSeeksWithinTheTenant() {
+        // When
+        QueryPlan plan = planner.plan(List.of("normalizedPhone:eq:5555551234"), List.of(), 10);
+
+        // Then
+        assertEquals(QueryPlan.INDEX_SEEK, plan.getAccess());
+        assertEquals("idx_contacts_tenant_normalized_phone", plan.getIndex());
+        assertEquals(List.of("tenantId", "normalizedPhone"), plan.getMatchedColumns());
+    }
+
+
+    @Test
+    void testUnindexedFilterIsReportedAsScan() {
+        // When
+        QueryPlan plan = planner.plan(List.of("address:prefix:123"), List.of(), null);
+
+        // Then
+        assertEquals(QueryPlan.TENANT_SCAN, plan.getAccess());
+        assertTrue(plan.isScan());
+        assertFalse(plan.getWarnings().isEmpty());
+    }
+
+
+    @Test
+    void testSortNotDeliveredByIndexIsWarned() {
+        // When
+        QueryPlan plan = planner.plan(List.of("phoneNumber:prefix:555"), List.of("-lastName"), null);
+
+        // Then
+        assertEquals("idx_contacts_tenant_phone", plan.getIndex());
+        assertFalse(plan.isSortedByIndex());
+        assertEquals(1, plan.getWarnings().size());
+    }
+
+
+    @Test
+    void testInvalidQueriesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(List.of("tenantId:eq:other"), List.of(), null));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(List.of("lastName:like:Wa"), List.of(), null));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(List.of("id:prefix:1"), List.of(), null));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(List.of("id:gt:abc"), List.of(), null));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(List.of(), List.of("password"), null));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(List.of(), List.of(), ContactQueryPlanner.MAX_LIMIT + 1));
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.crud.service;
+
+import com.example.crud.model.DuplicateGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateDetectorTest {
+
+    static final String TENANT = "default";
+
+    ForkJoinPool pool;
+
+    DuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        detector = new DuplicateDetector(pool, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+
+    @Test
+    void testNormalizePhoneIgnoresFormatting() {
+        assertEquals("5555551234", ContactNormalizer.normalizePhone("+1 (555) 555-1234"));
+        assertEquals("5555551234", ContactNormalizer.normalizePhone("555.555.1234"));
+        assertEquals("", ContactNormalizer.normalizePhone(null));
+    }
+
+
+    @Test
+    void testSoundexGroupsSpellingVariants() {
+        assertEquals("R163", ContactNormalizer.soundex("Robert"));
+        assertEquals("R163", ContactNormalizer.soundex("Rupert"));
+        assertEquals("A261", ContactNormalizer.soundex("Ashcraft"));
+        assertEquals(ContactNormalizer.soundex("Smith"), ContactNormalizer.soundex("Smyth"));
+        assertEquals("", ContactNormalizer.soundex("--"));
+    }
+
+
+    @Test
+    void testDetectGroupsPhoneVariants() {
+        // Given
+        List<DuplicateDetector.Candidate> candidates = Arrays.asList(
+                new DuplicateDetector.Candidate(1L, TENANT, "Alan", "Wang", "555-555-1234", "alan.wang@example.com"),
+                new DuplicateDetector.Candidate(2L, TENANT, "Alan", "Wang", "(555) 555 1234", null),
+                new DuplicateDetector.Candidate(3L, TENANT, "Jane", "Doe", "555-555-9999", "jane.doe@example.com"));
+
+        // When
+        List<DuplicateGroup> groups = detector.detect(candidates);
+
+        // Then
+        assertEquals(1, groups.size());
+        assertEquals(TENANT, groups.get(0).getTenantId());
+        assertEquals(1L, groups.get(0).getSurvivorId());
+        assertEquals(List.of(2L), groups.get(0).getDuplicateIds());
+        assertTrue(groups.get(0).getReasons().contains(DuplicateDetector.REASON_PHONE));
+    }
+
+
+    @Test
+    void testDetectGroupsEmailCaseAndSwappedNames() {
+        // Given
+        List<DuplicateDetector.Candidate> candidates = Arrays.asList(
+                new DuplicateDetector.Candidate(5L, TENANT, "Alan", "Wang", "555-555-1234", "Alan.Wang@Example.com"),
+                new DuplicateDetector.Candidate(7L, TENANT, "Bob", "Smith", "555-000-1111", " alan.wang@example.com "),
+                new DuplicateDetector.Candidate(9L, TENANT, "Wang", "Alan", "+1 555 555 1234", null),
+                new DuplicateDetector.Candidate(11L, TENANT, "Wang", "Alan", "555-777-4321", null));
+
+        // When
+        List<DuplicateGroup> groups = detector.detect(candidates);
+
+        // Then
+        assertEquals(1, groups.size());
+        assertEquals(5L, groups.get(0).getSurvivorId());
+        assertEquals(List.of(7L, 9L), groups.get(0).getDuplicateIds());
+    }
+
+
+    @Test
+    void testNormalizeAddressIgnoresCaseAndPunctuation() {
+        assertEquals("12 main st springfield", ContactNormalizer.normalizeAddress(" 12 Main St.,  Springfield "));
+        assertEquals("", ContactNormalizer.normalizeAddress(null));
+    }
+
+
+    @Test
+    void testDetectGroupsSpellingVariantsWithSharedField() {
+        // Given: Smith and Smyth sound alike; 1 and 2 share an address, 3 and 4 share an email user name
+        List<DuplicateDetector.Candidate> candidates = Arrays.asList(
+                new DuplicateDetector.Candidate(1L, TENANT, "John", "Smith", "555-111-0001", null, "12 Main St, Springfield"),
+                new DuplicateDetector.Candidate(2L, TENANT, "Jon", "Smyth", "555-222-0002", null, "12 main st. Springfield"),
+                new DuplicateDetector.Candidate(3L, TENANT, "Katherine", "Johnson", null, "k.johnson@example.com", null),
+                new DuplicateDetector.Candidate(4L, TENANT, "Johnson", "Kathryn", null, "K.Johnson@example.org", null),
+                new DuplicateDetector.Candidate(5L, TENANT, "John", "Smith", "555-333-0003", null, "7 Oak St, Salem"));
+
+        // When
+        List<DuplicateGroup> groups = detector.detect(candidates);
+
+        // Then
+        assertEquals(2, groups.size());
+        assertEquals(1L, groups.get(0).getSurvivorId());
+        assertEquals(List.of(2L), groups.get(0).getDuplicateIds());
+        assertTrue(groups.get(0).getReasons().contains(DuplicateDetector.REASON_NAME));
+        assertEquals(3L, groups.get(1).getSurvivorId());
+        assertEquals(List.of(4L), groups.get(1).getDuplicateIds());
+    }
+
+
+    @Test
+    void testDetectJoinsTransitiveMatchesAcrossBlocks() {
+        // Given: 1 and 2 share a phone, 2 and 3 share an email
+        List<DuplicateDetector.Candidate> candidates = Arrays.asList(
+                new DuplicateDetector.Candidate(3L, TENANT, "C", "Three", "555-333-3333", "shared@example.com"),
+                new DuplicateDetector.Candidate(2L, TENANT, "B", "Two", "555-222-2222", "SHARED@example.com"),
+                new DuplicateDetector.Candidate(1L, TENANT, "A", "One", "555.222.2222", null));
+
+        // When
+        List<DuplicateGroup> groups = detector.detect(candidates);
+
+        // Then
+        assertEquals(1, groups.size());
+        assertEquals(1L, groups.get(0).getSurvivorId());
+        assertEquals(List.of(2L, 3L), groups.get(0).getDuplicateIds());
+    }
+
+
+    @Test
+    void testDetectNeverGroupsAcrossTenants() {
+        // Given
+        List<DuplicateDetector.Candidate> candidates = Arrays.asList(
+                new DuplicateDetector.Candidate(1L, "acme", "Alan", "Wang", "555-555-1234", "alan.wang@example.com"),
+                new DuplicateDetector.Candidate(2L, "globex", "Alan", "Wang", "555-555-1234", "alan.wang@example.com"));
+
+        // When
+        List<DuplicateGroup> groups = detector.detect(candidates);
+
+        // Then
+        assertTrue(groups.isEmpty());
+    }
+
+
+    @Test
+    void testDetectSkipsOversizedBlocks() {
+        // Given
+        DuplicateDetector smallBlocks = new DuplicateDetector(pool, 3);
+        List<DuplicateDetector.Candidate> candidates = new ArrayList<>();
+        for (long i = 1; i <= 4; i++) {
+            candidates.add(new DuplicateDetector.Candidate(i, TENANT, "First" + i, "Last" + i, "555-555-0000", null));
+        }
+
+        // When
+        List<DuplicateGroup> groups = smallBlocks.detect(candidates);
+
+        // Then
+        assertTrue(groups.isEmpty());
+    }
+
+
+    @Test
+    void testDetectLargeAmountContacts() {
+        // Given
+        List<DuplicateDetector.Candidate> candidates = new ArrayList<>();
+        for (long i = 1; i <= 20000; i++) {
+            candidates.add(new DuplicateDetector.Candidate(i, TENANT, "First" + i, "Last" + i, "555-" + (1000000 + i), null));
+        }
+        candidates.add(new DuplicateDetector.Candidate(20001L, TENANT, "Someone", "Else", "555 100 0042", null));
+
+        // When
+        List<DuplicateGroup> groups = detector.detect(candidates);
+
+        // Then
+        assertEquals(1, groups.size());
+        assertEquals(42L, groups.get(0).getSurvivorId());
+        assertEquals(List.of(20001L), groups.get(0).getDuplicateIds());
+    }
+
+}
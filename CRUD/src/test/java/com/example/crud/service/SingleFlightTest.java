@@ -0,0 +1,102 @@
+package com.example.crud.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+
+    @Test
+    void testConcurrentIdenticalCallsShareOneExecution() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            // When
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("Alan", () -> {
+                executions.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "result";
+            })));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("Alan", () -> {
+                    executions.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while ((long) singleFlight.getMetrics().get("coalesced") < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals((long) callers, singleFlight.getMetrics().get("calls"));
+            assertEquals(1L, singleFlight.getMetrics().get("executions"));
+            assertEquals(0, singleFlight.getMetrics().get("inFlight"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void testSequentialCallsAreNotCached() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("Alan", () -> "first" + executions.incrementAndGet());
+        String second = singleFlight.execute("Alan", () -> "second" + executions.incrementAndGet());
+
+        assertEquals("second2", second);
+        assertEquals(0L, singleFlight.getMetrics().get("coalesced"));
+    }
+
+
+    @Test
+    void testExceptionIsRethrownAndKeyReleased() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("Alan", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals("ok", singleFlight.execute("Alan", () -> "ok"));
+    }
+
+
+    @Test
+    void testNullKeyIsNotCoalesced() {
+        assertEquals("value", singleFlight.execute(null, () -> "value"));
+        assertEquals(1L, singleFlight.getMetrics().get("executions"));
+    }
+
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
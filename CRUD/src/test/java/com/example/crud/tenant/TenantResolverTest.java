@@ -0,0 +1,72 @@
+package com.example.crud.tenant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantResolverTest {
+
+    TenantResolver tenantResolver = new TenantResolver();
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+
+    @Test
+    void testPreHandleReadsTenantHeader() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TenantResolver.TENANT_HEADER, "acme");
+
+        // When
+        boolean proceed = tenantResolver.preHandle(request, new MockHttpServletResponse(), null);
+
+        // Then
+        assertTrue(proceed);
+        assertEquals("acme", TenantContext.getTenantId());
+    }
+
+
+    @Test
+    void testPreHandleWithoutHeaderUsesDefaultTenant() throws Exception {
+        TenantContext.setTenantId("left-over");
+
+        boolean proceed = tenantResolver.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null);
+
+        assertTrue(proceed);
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.getTenantId());
+    }
+
+
+    @Test
+    void testPreHandleRejectsInvalidTenant() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TenantResolver.TENANT_HEADER, "acme' OR '1'='1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = tenantResolver.preHandle(request, response, null);
+
+        // Then
+        assertFalse(proceed);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+    }
+
+
+    @Test
+    void testAfterCompletionClearsTenant() {
+        TenantContext.setTenantId("acme");
+
+        tenantResolver.afterCompletion(new MockHttpServletRequest(), new MockHttpServletResponse(), null, null);
+
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.getTenantId());
+    }
+
+}
@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+#
+# Compares startup time and resident memory of the regular jar and the CDS build.
+#
+#   ./mvnw -Pcds package -DskipTests
+#   ./startup-benchmark.sh [runs]
+#
+# Each run starts the application on a random port, waits for the "Started CrudApplication" log line,
+# reads the JVM-reported startup time and the process RSS (Linux /proc), then stops it.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+cd "$(dirname "$0")"
+
+FAT_JAR="$(ls target/CRUD-*.jar | grep -v -- '-cds.jar' | head -n 1)"
+CDS_JAR="$(ls target/cds/CRUD-*-cds.jar | head -n 1)"
+CDS_ARCHIVE="target/cds/app.jsa"
+
+if [[ ! -f "$FAT_JAR" || ! -f "$CDS_JAR" || ! -f "$CDS_ARCHIVE" ]]; then
+    echo "Build first with: ./mvnw -Pcds package -DskipTests" >&2
+    exit 1
+fi
+
+# Prints "<startup seconds> <rss MiB>" for one start of the given java command line; fails if the
+# application exits or does not log that it started within 60 seconds
+measure() {
+    local log
+    log="$(mktemp)"
+    java -Dspring.devtools.restart.enabled=false "$@" --server.port=0 > "$log" 2>&1 &
+    local pid=$!
+
+    local started=""
+    for _ in $(seq 1 600); do
+        started="$(grep -o 'Started CrudApplication in [0-9.]* seconds' "$log" || true)"
+        [[ -n "$started" ]] && break
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited before it started, see $log" >&2
+            return 1
+        fi
+        sleep 0.1
+    done
+    if [[ -z "$started" ]]; then
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+        echo "Application did not start within 60 seconds, see $log" >&2
+        return 1
+    fi
+
+    local rss_kib
+    rss_kib="$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")"
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    rm -f "$log"
+
+    echo "$(echo "$started" | awk '{ print $4 }') $((rss_kib / 1024))"
+}
+
+# Prints the mean startup time and RSS over RUNS starts
+benchmark() {
+    local name=$1
+    shift
+    local total_seconds=0 total_rss=0
+    local result seconds rss
+    for run in $(seq 1 "$RUNS"); do
+        # A command substitution, unlike a process substitution, passes the failure of measure on
+        if ! result="$(measure "$@")"; then
+            echo "$name run $run failed" >&2
+            exit 1
+        fi
+        read -r seconds rss <<< "$result"
+        if [[ -z "$seconds" || -z "$rss" ]]; then
+            echo "$name run $run did not report a startup time" >&2
+            exit 1
+        fi
+        echo "  $name run $run: ${seconds}s, ${rss} MiB RSS"
+        total_seconds="$(echo "$total_seconds + $seconds" | bc -l)"
+        total_rss=$((total_rss + rss))
+    done
+    printf "%-8s mean startup %.2fs, mean RSS %d MiB\n" "$name" "$(echo "$total_seconds / $RUNS" | bc -l)" $((total_rss / RUNS))
+}
+
+benchmark "jar" -jar "$FAT_JAR"
+benchmark "cds" -XX:SharedArchiveFile="$CDS_ARCHIVE" -jar "$CDS_JAR"